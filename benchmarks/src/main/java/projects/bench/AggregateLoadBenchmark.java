@@ -0,0 +1,100 @@
+package projects.bench;
+
+import java.util.Arrays;
+
+import projects.dao.ProjectDao;
+
+/**
+ * Compares the latency of <code>ProjectDao.fetchProjectById</code> with
+ * aggregate loading (one round trip for the whole project graph) against the
+ * original path (one query each for the project, materials, steps and
+ * categories). Runs against the database configured in
+ * <code>DbConnection</code>, which must already contain the project.
+ *
+ * Usage: <code>AggregateLoadBenchmark &lt;projectId&gt; [iterations] [warmupIterations]</code>
+ *
+ * Both modes are warmed up first, then measured in alternating rounds so that
+ * drift in the database or the JIT affects both equally.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class AggregateLoadBenchmark {
+
+	/**
+	 * The number of alternating measurement rounds.
+	 */
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: AggregateLoadBenchmark <projectId> [iterations] [warmupIterations]");
+			return;
+		}
+
+		int projectId = Integer.parseInt(args[0]);
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 2_000;
+		int perRound = Math.max(1, iterations / ROUNDS);
+
+		ProjectDao projectDao = new ProjectDao();
+
+		if (projectDao.fetchProjectById(projectId).isEmpty()) {
+			System.out.println("Project " + projectId + " does not exist.");
+			return;
+		}
+
+		run(projectDao, projectId, true, new long[warmup], 0, warmup);
+		run(projectDao, projectId, false, new long[warmup], 0, warmup);
+
+		long[] aggregate = new long[perRound * ROUNDS];
+		long[] separate = new long[perRound * ROUNDS];
+
+		for (int round = 0; round < ROUNDS; round++) {
+			run(projectDao, projectId, true, aggregate, round * perRound, perRound);
+			run(projectDao, projectId, false, separate, round * perRound, perRound);
+		}
+
+		System.out.println("\nfetchProjectById(" + projectId + "), " + aggregate.length + " calls per mode, latency in microseconds:");
+		System.out.printf("%-22s %10s %10s %10s %10s%n", "mode", "mean", "p50", "p99", "max");
+		report("aggregate (1 trip)", aggregate);
+		report("separate (4 queries)", separate);
+	}
+
+	/**
+	 * Times <code>count</code> <code>fetchProjectById</code> calls in one
+	 * mode, storing each latency in <code>samples</code> starting at
+	 * <code>offset</code>.
+	 */
+
+	private static void run(ProjectDao projectDao, int projectId, boolean aggregateLoading, long[] samples,
+			int offset, int count) {
+		projectDao.setAggregateLoading(aggregateLoading);
+		for (int i = 0; i < count; i++) {
+			long start = System.nanoTime();
+			projectDao.fetchProjectById(projectId);
+			samples[offset + i] = System.nanoTime() - start;
+		}
+	}
+
+	/**
+	 * Prints the mean, median, 99th percentile and maximum of a set of
+	 * latencies.
+	 */
+
+	private static void report(String mode, long[] samples) {
+		long[] sorted = samples.clone();
+		Arrays.sort(sorted);
+		double mean = Arrays.stream(sorted).average().orElse(0);
+		System.out.printf("%-22s %10.1f %10.1f %10.1f %10.1f%n", mode, mean / 1000.0,
+				percentile(sorted, 0.50) / 1000.0, percentile(sorted, 0.99) / 1000.0,
+				sorted[sorted.length - 1] / 1000.0);
+	}
+
+	private static double percentile(long[] sorted, double fraction) {
+		int index = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+}
@@ -0,0 +1,137 @@
+package projects.bench;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.entity.compact.CompactCategory;
+import projects.entity.compact.CompactMaterial;
+import projects.entity.compact.CompactProject;
+import projects.entity.compact.CompactStep;
+
+/**
+ * Reports the heap footprint of a working set of projects held as mutable
+ * entities and as compact records, measured with JOL. The projects are
+ * generated, not read from the database, and share a handful of categories
+ * as projects loaded by <code>ProjectDao</code> do.
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml package
+ * java -Djdk.attach.allowAttachSelf -cp benchmarks/target/benchmarks.jar projects.bench.FootprintReport [projects] [materials] [steps]
+ * </pre>
+ *
+ * Defaults to 10,000 projects of 5 materials and 8 steps each. Strings are
+ * counted in both totals; they are the same in both models, so the
+ * difference between the totals is what the compact model saves.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class FootprintReport {
+
+	private static final int CATEGORIES = 6;
+
+	public static void main(String[] args) {
+		int projectCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int materialCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		int stepCount = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+		// Unsafe refuses the field offsets of records; JOL can find them itself.
+		System.setProperty("jol.magicFieldOffset", "true");
+
+		System.out.println(ClassLayout.parseClass(Project.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(CompactProject.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(Material.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(CompactMaterial.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(Step.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(CompactStep.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(Category.class).toPrintable());
+		System.out.println(ClassLayout.parseClass(CompactCategory.class).toPrintable());
+
+		List<Project> projects = generate(projectCount, materialCount, stepCount);
+		List<CompactProject> compact = CompactProject.fromAll(projects);
+
+		GraphLayout mutableLayout = GraphLayout.parseInstance(projects);
+		GraphLayout compactLayout = GraphLayout.parseInstance(compact);
+
+		System.out.println("Mutable entities:");
+		System.out.println(mutableLayout.toFootprint());
+		System.out.println("Compact records:");
+		System.out.println(compactLayout.toFootprint());
+
+		long mutableBytes = mutableLayout.totalSize();
+		long compactBytes = compactLayout.totalSize();
+
+		System.out.printf("%,d projects, %d materials and %d steps each%n", projectCount, materialCount, stepCount);
+		System.out.printf("%-10s %15s %15s%n", "", "total bytes", "per project");
+		System.out.printf("%-10s %,15d %,15d%n", "mutable", mutableBytes, mutableBytes / Math.max(1, projectCount));
+		System.out.printf("%-10s %,15d %,15d%n", "compact", compactBytes, compactBytes / Math.max(1, projectCount));
+		System.out.printf("compact is %.1f%% of mutable%n", 100.0 * compactBytes / Math.max(1, mutableBytes));
+	}
+
+	/**
+	 * Builds projects with every column filled, shaped like the rows the
+	 * application stores: short names, a sentence of notes, and hours and
+	 * costs with two decimal places.
+	 */
+
+	private static List<Project> generate(int projectCount, int materialCount, int stepCount) {
+		List<Category> categories = new ArrayList<>();
+		for (int id = 1; id <= CATEGORIES; id++) {
+			Category category = new Category();
+			category.setCategoryId(id);
+			category.setCategoryName("Category " + id);
+			categories.add(category);
+		}
+
+		List<Project> projects = new ArrayList<>(projectCount);
+		int materialId = 1;
+		int stepId = 1;
+
+		for (int projectId = 1; projectId <= projectCount; projectId++) {
+			Project project = new Project();
+			project.setProjectId(projectId);
+			project.setProjectName("Project " + projectId);
+			project.setEstimatedHours(BigDecimal.valueOf(400 + projectId % 1000, 2));
+			project.setActualHours(BigDecimal.valueOf(525 + projectId % 1000, 2));
+			project.setDifficulty(1 + projectId % 5);
+			project.setNotes("Notes for project " + projectId + ", kept to a sentence.");
+
+			for (int i = 0; i < materialCount; i++) {
+				Material material = new Material();
+				material.setMaterialId(materialId++);
+				material.setProjectId(projectId);
+				material.setMaterialName("Material " + i);
+				material.setNumRequired(1 + i);
+				material.setCost(BigDecimal.valueOf(199 + i * 100, 2));
+				project.getMaterials().add(material);
+			}
+
+			for (int i = 0; i < stepCount; i++) {
+				Step step = new Step();
+				step.setStepId(stepId++);
+				step.setProjectId(projectId);
+				step.setStepText("Step " + (i + 1) + " of project " + projectId);
+				step.setStepOrder(i + 1);
+				project.getSteps().add(step);
+			}
+
+			project.getCategories().add(categories.get(projectId % CATEGORIES));
+			project.getCategories().add(categories.get((projectId + 1) % CATEGORIES));
+
+			projects.add(project);
+		}
+
+		return projects;
+	}
+
+}
@@ -0,0 +1,145 @@
+package projects.bench;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size histogram of latencies in nanoseconds. Values are counted in
+ * log-linear buckets: exactly below 128ns, and above that in 64 buckets per
+ * power of two, so every recorded value is within about 1.6% of the bucket
+ * it is reported as. Recording is a few arithmetic operations and one array
+ * increment, with no allocation, and the histogram covers every positive
+ * <code>long</code>.
+ *
+ * Percentiles are reported as the upper bound of the bucket they fall in, so
+ * they never understate a latency. The maximum is tracked exactly.
+ *
+ * Not thread-safe; each thread records into its own histogram and the
+ * histograms are combined with <code>add</code> afterwards.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class LatencyHistogram {
+
+	/**
+	 * The number of buckets per power of two, above the linear range.
+	 */
+	private static final int SUB_BUCKETS = 64;
+	/**
+	 * Values below this are counted exactly.
+	 */
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+	private final long[] counts = new long[LINEAR_LIMIT + (63 - 6) * SUB_BUCKETS];
+	private long count;
+	private long sum;
+	private long max;
+
+	/**
+	 * Records one latency.
+	 *
+	 * @param nanos The latency in nanoseconds. Negative values are recorded
+	 * 					as 0.
+	 */
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts[indexOf(value)]++;
+		count++;
+		sum += value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Adds every value recorded in another histogram to this one.
+	 *
+	 * @param other The histogram to add.
+	 */
+
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+		count += other.count;
+		sum += other.sum;
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Discards every recorded value.
+	 */
+
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		max = 0;
+	}
+
+	/**
+	 * @return the number of values recorded.
+	 */
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the largest value recorded, or 0 if there are none.
+	 */
+
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the mean of the values recorded, or 0 if there are none.
+	 */
+
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * @param fraction The percentile as a fraction, such as 0.99.
+	 * @return the smallest bucket upper bound at or below which at least
+	 * <code>fraction</code> of the values fall, capped at the maximum; or 0
+	 * if there are no values.
+	 */
+
+	public long getPercentile(double fraction) {
+		if (count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(fraction * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(upperBoundOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	private static int indexOf(long value) {
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - 6;
+		int sub = (int) (value >>> shift);
+		return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+	}
+
+	private static long upperBoundOf(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		long upper = ((sub + 1) << shift) - 1;
+		return upper < 0 ? Long.MAX_VALUE : upper;
+	}
+
+}
@@ -0,0 +1,459 @@
+package projects.bench;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import projects.entity.Project;
+import projects.service.ProjectService;
+
+/**
+ * Drives <code>ProjectService</code> with a mix of inserts, list pages,
+ * selects, updates and deletes from many client threads, and reports the
+ * latency percentiles and throughput of each operation. Runs against the
+ * database configured in <code>DbConnection</code>. Every project it inserts
+ * is deleted again before it exits.
+ *
+ * Usage: <code>LoadGenerator [--threads n] [--virtual] [--rate opsPerSecond]
+ * [--warmup seconds] [--duration seconds] [--mix insert=5,list=20,select=60,update=10,delete=5]
+ * [--seed projects] [--csv file]</code>
+ *
+ * With a target rate, each client issues operations on a fixed schedule and
+ * latency is measured from when an operation was due to start, not from when
+ * it actually started. An operation delayed behind a slow one is therefore
+ * charged for the time it spent waiting, which corrects the coordinated
+ * omission a closed-loop client would otherwise hide. Without a rate each
+ * client runs flat out and the two measurements coincide. Service time, from
+ * the actual start, is reported alongside for comparison.
+ *
+ * Operations that start during the warm-up period run but are not recorded.
+ * Selects and updates choose among the projects the generator inserted, so
+ * one may occasionally race a delete of the same project and be counted as
+ * an error.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class LoadGenerator {
+
+	/**
+	 * The operations in the mix.
+	 */
+
+	private enum Operation {
+		INSERT, LIST, SELECT, UPDATE, DELETE
+	}
+
+	/**
+	 * The percentiles reported, as fractions.
+	 */
+	private static final double[] PERCENTILES = { 0.50, 0.99, 0.999 };
+
+	/**
+	 * The number of projects on each page read by the list operation.
+	 */
+	private static final int PAGE_SIZE = 20;
+
+	private final ProjectService projectService = new ProjectService();
+	private final IdPool ids = new IdPool();
+
+	private int threads = 8;
+	private boolean virtualThreads;
+	private double rate;
+	private long warmupSeconds = 10;
+	private long durationSeconds = 60;
+	private int seedProjects = 100;
+	private Path csv = Path.of("load-results.csv");
+	private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+	public static void main(String[] args) throws Exception {
+		LoadGenerator generator = new LoadGenerator();
+		if (!generator.parse(args)) {
+			System.out.println("Usage: LoadGenerator [--threads n] [--virtual] [--rate opsPerSecond]"
+					+ " [--warmup seconds] [--duration seconds]"
+					+ " [--mix insert=5,list=20,select=60,update=10,delete=5] [--seed projects] [--csv file]");
+			return;
+		}
+		try {
+			generator.run();
+		} finally {
+			generator.projectService.shutdown();
+		}
+	}
+
+	/**
+	 * Reads the command line options.
+	 *
+	 * @return <code>false</code> if the options are invalid.
+	 */
+
+	private boolean parse(String[] args) {
+		mix.put(Operation.INSERT, 5);
+		mix.put(Operation.LIST, 20);
+		mix.put(Operation.SELECT, 60);
+		mix.put(Operation.UPDATE, 10);
+		mix.put(Operation.DELETE, 5);
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+					case "--threads":
+						threads = Integer.parseInt(args[++i]);
+						break;
+					case "--virtual":
+						virtualThreads = true;
+						break;
+					case "--rate":
+						rate = Double.parseDouble(args[++i]);
+						break;
+					case "--warmup":
+						warmupSeconds = Long.parseLong(args[++i]);
+						break;
+					case "--duration":
+						durationSeconds = Long.parseLong(args[++i]);
+						break;
+					case "--seed":
+						seedProjects = Integer.parseInt(args[++i]);
+						break;
+					case "--csv":
+						csv = Path.of(args[++i]);
+						break;
+					case "--mix":
+						mix.replaceAll((operation, weight) -> 0);
+						for (String entry : args[++i].split(",")) {
+							String[] pair = entry.split("=");
+							mix.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)),
+									Integer.parseInt(pair[1].trim()));
+						}
+						break;
+					default:
+						return false;
+				}
+			}
+		} catch (RuntimeException e) {
+			return false;
+		}
+		return threads > 0 && durationSeconds > 0 && warmupSeconds >= 0
+				&& mix.values().stream().mapToInt(Integer::intValue).sum() > 0;
+	}
+
+	/**
+	 * Seeds the table, runs the clients, reports the results and removes the
+	 * projects that were inserted.
+	 */
+
+	private void run() throws Exception {
+		System.out.println("Seeding " + seedProjects + " projects...");
+		for (int i = 0; i < seedProjects; i++) {
+			ids.add(projectService.addProject(newProject()).getProjectId());
+		}
+
+		long start = System.nanoTime() + 100_000_000L;
+		long measureStart = start + warmupSeconds * 1_000_000_000L;
+		long end = measureStart + durationSeconds * 1_000_000_000L;
+		long interval = rate > 0 ? (long) (1_000_000_000L * threads / rate) : 0;
+
+		System.out.printf("Running %d %s clients for %ds after a %ds warm-up, %s...%n", threads,
+				virtualThreads ? "virtual-thread" : "platform-thread", durationSeconds, warmupSeconds,
+				rate > 0 ? String.format("%.0f ops/s in total", rate) : "unthrottled");
+
+		List<Client> clients = new ArrayList<>();
+		List<Thread> running = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			long firstDue = start + (interval * i) / threads;
+			Client client = new Client(firstDue, interval, measureStart, end);
+			clients.add(client);
+			running.add(newThread(client, i));
+		}
+		running.forEach(Thread::start);
+		for (Thread thread : running) {
+			thread.join();
+		}
+
+		Map<Operation, Result> results = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			Result total = new Result();
+			clients.forEach(client -> total.add(client.results.get(operation)));
+			results.put(operation, total);
+		}
+
+		report(results, durationSeconds);
+		writeCsv(results, durationSeconds);
+
+		System.out.println("Removing " + ids.size() + " inserted projects...");
+		Integer id;
+		while ((id = ids.take()) != null) {
+			try {
+				projectService.deleteProject(id);
+			} catch (RuntimeException e) {
+				// Already gone; nothing to clean up.
+			}
+		}
+	}
+
+	/**
+	 * Runs one operation.
+	 *
+	 * @return <code>false</code> if the operation failed.
+	 */
+
+	private boolean execute(Operation operation, ThreadLocalRandom random) {
+		try {
+			switch (operation) {
+				case INSERT:
+					ids.add(projectService.addProject(newProject()).getProjectId());
+					break;
+				case LIST:
+					Integer after = ids.pick(random);
+					Integer afterId = after == null ? null : after - random.nextInt(PAGE_SIZE);
+					projectService.fetchProjectsAfter(afterId, PAGE_SIZE);
+					break;
+				case SELECT:
+					Integer selected = ids.pick(random);
+					if (selected != null) {
+						projectService.fetchProjectById(selected);
+					}
+					break;
+				case UPDATE:
+					Integer updated = ids.pick(random);
+					if (updated != null) {
+						Project project = newProject();
+						project.setProjectId(updated);
+						projectService.modifyProjectDetails(project);
+					}
+					break;
+				case DELETE:
+					Integer deleted = ids.take(random);
+					if (deleted != null) {
+						projectService.deleteProject(deleted);
+					}
+					break;
+			}
+			return true;
+		} catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	private static Project newProject() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Project project = new Project();
+		project.setProjectName("Load test project " + random.nextInt(1_000_000));
+		project.setEstimatedHours(BigDecimal.valueOf(random.nextInt(1, 10_000), 2));
+		project.setActualHours(BigDecimal.valueOf(random.nextInt(1, 10_000), 2));
+		project.setDifficulty(random.nextInt(1, 6));
+		project.setNotes("Inserted by LoadGenerator");
+		return project;
+	}
+
+	/**
+	 * Creates a client thread: a virtual thread if requested and the JVM
+	 * supports them (Java 21 and later), otherwise a platform thread.
+	 */
+
+	private Thread newThread(Runnable client, int index) {
+		if (virtualThreads) {
+			try {
+				Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+				Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+				return (Thread) unstarted.invoke(builder, client);
+			} catch (ReflectiveOperationException e) {
+				if (index == 0) {
+					System.out.println("Virtual threads are not available on this JVM; using platform threads.");
+				}
+			}
+		}
+		return new Thread(client, "load-client-" + index);
+	}
+
+	/**
+	 * Prints the results as a table, with latencies in microseconds.
+	 */
+
+	private void report(Map<Operation, Result> results, long seconds) {
+		System.out.printf("%n%-8s %9s %7s %9s %10s %10s %10s %10s %12s%n", "op", "count", "errors", "ops/s",
+				"p50", "p99", "p99.9", "max", "svc p99.9");
+		long totalCount = 0;
+		for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+			Result result = entry.getValue();
+			LatencyHistogram response = result.response;
+			totalCount += response.getCount();
+			System.out.printf("%-8s %9d %7d %9.1f %10.1f %10.1f %10.1f %10.1f %12.1f%n",
+					entry.getKey().name().toLowerCase(Locale.ROOT), response.getCount(), result.errors,
+					(double) response.getCount() / seconds, micros(response.getPercentile(PERCENTILES[0])),
+					micros(response.getPercentile(PERCENTILES[1])), micros(response.getPercentile(PERCENTILES[2])),
+					micros(response.getMax()), micros(result.service.getPercentile(PERCENTILES[2])));
+		}
+		System.out.printf("%-8s %9d %7s %9.1f%n", "total", totalCount, "", (double) totalCount / seconds);
+		System.out.println("Latencies in microseconds, measured from each operation's scheduled start.");
+	}
+
+	/**
+	 * Writes the results to the CSV file, one row per operation.
+	 */
+
+	private void writeCsv(Map<Operation, Result> results, long seconds) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv))) {
+			out.println("operation,count,errors,ops_per_second,p50_us,p99_us,p999_us,max_us,mean_us,"
+					+ "service_p50_us,service_p99_us,service_p999_us");
+			for (Map.Entry<Operation, Result> entry : results.entrySet()) {
+				LatencyHistogram response = entry.getValue().response;
+				LatencyHistogram service = entry.getValue().service;
+				out.printf(Locale.ROOT, "%s,%d,%d,%.2f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+						entry.getKey().name().toLowerCase(Locale.ROOT), response.getCount(), entry.getValue().errors,
+						(double) response.getCount() / seconds, micros(response.getPercentile(PERCENTILES[0])),
+						micros(response.getPercentile(PERCENTILES[1])), micros(response.getPercentile(PERCENTILES[2])),
+						micros(response.getMax()), response.getMean() / 1000.0,
+						micros(service.getPercentile(PERCENTILES[0])), micros(service.getPercentile(PERCENTILES[1])),
+						micros(service.getPercentile(PERCENTILES[2])));
+			}
+		}
+		System.out.println("Results written to " + csv.toAbsolutePath());
+	}
+
+	private static double micros(long nanos) {
+		return nanos / 1000.0;
+	}
+
+	/**
+	 * The latencies and error count of one operation.
+	 */
+
+	private static final class Result {
+
+		private final LatencyHistogram response = new LatencyHistogram();
+		private final LatencyHistogram service = new LatencyHistogram();
+		private long errors;
+
+		private void add(Result other) {
+			response.add(other.response);
+			service.add(other.service);
+			errors += other.errors;
+		}
+	}
+
+	/**
+	 * One client. Picks operations according to the mix and, with a target
+	 * rate, issues them on a fixed schedule.
+	 */
+
+	private final class Client implements Runnable {
+
+		private final long firstDue;
+		private final long interval;
+		private final long measureStart;
+		private final long end;
+		private final Map<Operation, Result> results = new EnumMap<>(Operation.class);
+
+		private Client(long firstDue, long interval, long measureStart, long end) {
+			this.firstDue = firstDue;
+			this.interval = interval;
+			this.measureStart = measureStart;
+			this.end = end;
+			for (Operation operation : Operation.values()) {
+				results.put(operation, new Result());
+			}
+		}
+
+		@Override
+		public void run() {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Operation[] operations = Operation.values();
+			int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+			long due = firstDue;
+
+			while (true) {
+				long now = System.nanoTime();
+				if (interval > 0) {
+					while (now < due) {
+						LockSupport.parkNanos(due - now);
+						now = System.nanoTime();
+					}
+				} else {
+					due = now;
+				}
+				if (due >= end) {
+					return;
+				}
+
+				int pick = random.nextInt(totalWeight);
+				Operation operation = operations[0];
+				for (Operation candidate : operations) {
+					pick -= mix.get(candidate);
+					if (pick < 0) {
+						operation = candidate;
+						break;
+					}
+				}
+
+				long started = System.nanoTime();
+				boolean succeeded = execute(operation, random);
+				long finished = System.nanoTime();
+
+				if (due >= measureStart) {
+					Result result = results.get(operation);
+					result.response.record(finished - due);
+					result.service.record(finished - started);
+					if (!succeeded) {
+						result.errors++;
+					}
+				}
+				due += interval;
+			}
+		}
+	}
+
+	/**
+	 * The IDs of the projects inserted by the generator, which the select,
+	 * update and delete operations choose from.
+	 */
+
+	private static final class IdPool {
+
+		private final List<Integer> ids = new ArrayList<>();
+
+		private synchronized void add(Integer id) {
+			ids.add(id);
+		}
+
+		private synchronized Integer pick(ThreadLocalRandom random) {
+			return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+		}
+
+		/**
+		 * Removes and returns a random ID, by moving the last ID into its
+		 * place.
+		 */
+
+		private synchronized Integer take(ThreadLocalRandom random) {
+			if (ids.isEmpty()) {
+				return null;
+			}
+			int index = random.nextInt(ids.size());
+			Integer id = ids.get(index);
+			ids.set(index, ids.get(ids.size() - 1));
+			ids.remove(ids.size() - 1);
+			return id;
+		}
+
+		private synchronized Integer take() {
+			return ids.isEmpty() ? null : ids.remove(ids.size() - 1);
+		}
+
+		private synchronized int size() {
+			return ids.size();
+		}
+	}
+
+}
@@ -0,0 +1,100 @@
+package projects.bench.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * A forward-only result set over rows held in memory. Values are returned as
+ * stored, without conversion, so reading a column costs no more than an
+ * array access; only the typed getters the mapping code uses are supported.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class InMemoryResultSet extends UnsupportedResultSet {
+
+	private final InMemoryResultSetMetaData meta;
+	private final Object[][] rows;
+	private int row = -1;
+	private boolean wasNull;
+	private boolean closed;
+
+	/**
+	 * @param labels The column labels, in column order.
+	 * @param rows The rows, each holding one value per column.
+	 */
+
+	public InMemoryResultSet(String[] labels, Object[][] rows) {
+		this.meta = new InMemoryResultSetMetaData(labels);
+		this.rows = rows;
+	}
+
+	@Override
+	public boolean next() throws SQLException {
+		return ++row < rows.length;
+	}
+
+	@Override
+	public void beforeFirst() throws SQLException {
+		row = -1;
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return meta;
+	}
+
+	@Override
+	public Object getObject(int columnIndex) throws SQLException {
+		Object value = rows[row][columnIndex - 1];
+		wasNull = value == null;
+		return value;
+	}
+
+	@Override
+	public int getInt(int columnIndex) throws SQLException {
+		Object value = getObject(columnIndex);
+		return wasNull ? 0 : ((Number) value).intValue();
+	}
+
+	@Override
+	public long getLong(int columnIndex) throws SQLException {
+		Object value = getObject(columnIndex);
+		return wasNull ? 0 : ((Number) value).longValue();
+	}
+
+	@Override
+	public double getDouble(int columnIndex) throws SQLException {
+		Object value = getObject(columnIndex);
+		return wasNull ? 0 : ((Number) value).doubleValue();
+	}
+
+	@Override
+	public String getString(int columnIndex) throws SQLException {
+		Object value = getObject(columnIndex);
+		return wasNull ? null : value.toString();
+	}
+
+	@Override
+	public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+		return (BigDecimal) getObject(columnIndex);
+	}
+
+	@Override
+	public boolean wasNull() throws SQLException {
+		return wasNull;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+
+}
@@ -0,0 +1,40 @@
+package projects.bench.jdbc;
+
+import java.sql.SQLException;
+
+/**
+ * Column metadata for an <code>InMemoryResultSet</code>: just the column
+ * labels.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class InMemoryResultSetMetaData extends UnsupportedResultSetMetaData {
+
+	private final String[] labels;
+
+	/**
+	 * @param labels The column labels, in column order.
+	 */
+
+	public InMemoryResultSetMetaData(String[] labels) {
+		this.labels = labels.clone();
+	}
+
+	@Override
+	public int getColumnCount() throws SQLException {
+		return labels.length;
+	}
+
+	@Override
+	public String getColumnLabel(int column) throws SQLException {
+		return labels[column - 1];
+	}
+
+	@Override
+	public String getColumnName(int column) throws SQLException {
+		return labels[column - 1];
+	}
+
+}
@@ -0,0 +1,77 @@
+package projects.bench.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * A prepared statement that only records the parameters set on it. It stands
+ * in for a driver statement when measuring parameter binding, so that the
+ * cost measured is the binding code's and not the driver's.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class RecordingPreparedStatement extends UnsupportedPreparedStatement {
+
+	private final Object[] parameters;
+
+	/**
+	 * @param parameterCount The number of parameters the statement accepts.
+	 */
+
+	public RecordingPreparedStatement(int parameterCount) {
+		this.parameters = new Object[parameterCount];
+	}
+
+	/**
+	 * @param parameterIndex The one-based parameter index.
+	 * @return the value last set for the parameter, or <code>null</code> if
+	 * it was set to SQL <code>NULL</code>.
+	 */
+
+	public Object getParameter(int parameterIndex) {
+		return parameters[parameterIndex - 1];
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		parameters[parameterIndex - 1] = null;
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int value) throws SQLException {
+		parameters[parameterIndex - 1] = value;
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double value) throws SQLException {
+		parameters[parameterIndex - 1] = value;
+	}
+
+	@Override
+	public void setString(int parameterIndex, String value) throws SQLException {
+		parameters[parameterIndex - 1] = value;
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal value) throws SQLException {
+		parameters[parameterIndex - 1] = value;
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object value) throws SQLException {
+		parameters[parameterIndex - 1] = value;
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		Arrays.fill(parameters, null);
+	}
+
+	@Override
+	public void close() throws SQLException {
+	}
+
+}
@@ -0,0 +1,545 @@
+package projects.bench.jdbc;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A <code>PreparedStatement</code> whose every method throws
+ * <code>SQLFeatureNotSupportedException</code>. The in-memory stand-ins used
+ * by the benchmarks extend it and override only the methods the code under
+ * test calls, so that a benchmark fails loudly if the mapping code starts
+ * relying on something the stand-in does not model.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public abstract class UnsupportedPreparedStatement implements PreparedStatement {
+
+	/**
+	 * @param method The name of the method that was called.
+	 * @return the exception thrown by every method a subclass does not
+	 * override.
+	 */
+
+	protected SQLFeatureNotSupportedException unsupported(String method) {
+		return new SQLFeatureNotSupportedException(getClass().getSimpleName() + " does not support " + method);
+	}
+
+	@Override
+	public void addBatch() throws SQLException {
+		throw unsupported("addBatch");
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		throw unsupported("addBatch");
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		throw unsupported("cancel");
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		throw unsupported("clearBatch");
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		throw unsupported("clearParameters");
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		throw unsupported("clearWarnings");
+	}
+
+	@Override
+	public void close() throws SQLException {
+		throw unsupported("close");
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		throw unsupported("closeOnCompletion");
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		throw unsupported("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		throw unsupported("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		throw unsupported("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		throw unsupported("execute");
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		throw unsupported("execute");
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		throw unsupported("executeBatch");
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		throw unsupported("executeQuery");
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		throw unsupported("executeQuery");
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		throw unsupported("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		throw unsupported("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		throw unsupported("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		throw unsupported("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		throw unsupported("executeUpdate");
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		throw unsupported("getConnection");
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		throw unsupported("getFetchDirection");
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		throw unsupported("getFetchSize");
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		throw unsupported("getGeneratedKeys");
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		throw unsupported("getMaxFieldSize");
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		throw unsupported("getMaxRows");
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		throw unsupported("getMetaData");
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		throw unsupported("getMoreResults");
+	}
+
+	@Override
+	public boolean getMoreResults(int value) throws SQLException {
+		throw unsupported("getMoreResults");
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		throw unsupported("getParameterMetaData");
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		throw unsupported("getQueryTimeout");
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		throw unsupported("getResultSet");
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		throw unsupported("getResultSetConcurrency");
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		throw unsupported("getResultSetHoldability");
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		throw unsupported("getResultSetType");
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		throw unsupported("getUpdateCount");
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		throw unsupported("getWarnings");
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		throw unsupported("isCloseOnCompletion");
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		throw unsupported("isClosed");
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		throw unsupported("isPoolable");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> type) throws SQLException {
+		throw unsupported("isWrapperFor");
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array value) throws SQLException {
+		throw unsupported("setArray");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream value, int length) throws SQLException {
+		throw unsupported("setAsciiStream");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream value, long length) throws SQLException {
+		throw unsupported("setAsciiStream");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream value) throws SQLException {
+		throw unsupported("setAsciiStream");
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal value) throws SQLException {
+		throw unsupported("setBigDecimal");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream value, int length) throws SQLException {
+		throw unsupported("setBinaryStream");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream value, long length) throws SQLException {
+		throw unsupported("setBinaryStream");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream value) throws SQLException {
+		throw unsupported("setBinaryStream");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream value, long length) throws SQLException {
+		throw unsupported("setBlob");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream value) throws SQLException {
+		throw unsupported("setBlob");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, Blob value) throws SQLException {
+		throw unsupported("setBlob");
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean value) throws SQLException {
+		throw unsupported("setBoolean");
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte value) throws SQLException {
+		throw unsupported("setByte");
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] value) throws SQLException {
+		throw unsupported("setBytes");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader value, int length) throws SQLException {
+		throw unsupported("setCharacterStream");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+		throw unsupported("setCharacterStream");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader value) throws SQLException {
+		throw unsupported("setCharacterStream");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader value, long length) throws SQLException {
+		throw unsupported("setClob");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader value) throws SQLException {
+		throw unsupported("setClob");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Clob value) throws SQLException {
+		throw unsupported("setClob");
+	}
+
+	@Override
+	public void setCursorName(String value) throws SQLException {
+		throw unsupported("setCursorName");
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date value, Calendar calendar) throws SQLException {
+		throw unsupported("setDate");
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date value) throws SQLException {
+		throw unsupported("setDate");
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double value) throws SQLException {
+		throw unsupported("setDouble");
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean value) throws SQLException {
+		throw unsupported("setEscapeProcessing");
+	}
+
+	@Override
+	public void setFetchDirection(int value) throws SQLException {
+		throw unsupported("setFetchDirection");
+	}
+
+	@Override
+	public void setFetchSize(int value) throws SQLException {
+		throw unsupported("setFetchSize");
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float value) throws SQLException {
+		throw unsupported("setFloat");
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int length) throws SQLException {
+		throw unsupported("setInt");
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long length) throws SQLException {
+		throw unsupported("setLong");
+	}
+
+	@Override
+	public void setMaxFieldSize(int value) throws SQLException {
+		throw unsupported("setMaxFieldSize");
+	}
+
+	@Override
+	public void setMaxRows(int value) throws SQLException {
+		throw unsupported("setMaxRows");
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+		throw unsupported("setNCharacterStream");
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+		throw unsupported("setNCharacterStream");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader value, long length) throws SQLException {
+		throw unsupported("setNClob");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader value) throws SQLException {
+		throw unsupported("setNClob");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, NClob value) throws SQLException {
+		throw unsupported("setNClob");
+	}
+
+	@Override
+	public void setNString(int parameterIndex, String value) throws SQLException {
+		throw unsupported("setNString");
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		throw unsupported("setNull");
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		throw unsupported("setNull");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object value, int targetSqlType, int scaleOrLength) throws SQLException {
+		throw unsupported("setObject");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object value, int scaleOrLength) throws SQLException {
+		throw unsupported("setObject");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object value) throws SQLException {
+		throw unsupported("setObject");
+	}
+
+	@Override
+	public void setPoolable(boolean value) throws SQLException {
+		throw unsupported("setPoolable");
+	}
+
+	@Override
+	public void setQueryTimeout(int value) throws SQLException {
+		throw unsupported("setQueryTimeout");
+	}
+
+	@Override
+	public void setRef(int parameterIndex, Ref value) throws SQLException {
+		throw unsupported("setRef");
+	}
+
+	@Override
+	public void setRowId(int parameterIndex, RowId value) throws SQLException {
+		throw unsupported("setRowId");
+	}
+
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML value) throws SQLException {
+		throw unsupported("setSQLXML");
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short value) throws SQLException {
+		throw unsupported("setShort");
+	}
+
+	@Override
+	public void setString(int parameterIndex, String value) throws SQLException {
+		throw unsupported("setString");
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time value, Calendar calendar) throws SQLException {
+		throw unsupported("setTime");
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time value) throws SQLException {
+		throw unsupported("setTime");
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp value, Calendar calendar) throws SQLException {
+		throw unsupported("setTimestamp");
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp value) throws SQLException {
+		throw unsupported("setTimestamp");
+	}
+
+	@Override
+	public void setURL(int parameterIndex, URL value) throws SQLException {
+		throw unsupported("setURL");
+	}
+
+	@Override
+	public void setUnicodeStream(int parameterIndex, InputStream value, int length) throws SQLException {
+		throw unsupported("setUnicodeStream");
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> type) throws SQLException {
+		throw unsupported("unwrap");
+	}
+
+}
@@ -0,0 +1,145 @@
+package projects.bench.jdbc;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * A <code>ResultSetMetaData</code> whose every method throws
+ * <code>SQLFeatureNotSupportedException</code>. The in-memory stand-ins used
+ * by the benchmarks extend it and override only the methods the code under
+ * test calls, so that a benchmark fails loudly if the mapping code starts
+ * relying on something the stand-in does not model.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public abstract class UnsupportedResultSetMetaData implements ResultSetMetaData {
+
+	/**
+	 * @param method The name of the method that was called.
+	 * @return the exception thrown by every method a subclass does not
+	 * override.
+	 */
+
+	protected SQLFeatureNotSupportedException unsupported(String method) {
+		return new SQLFeatureNotSupportedException(getClass().getSimpleName() + " does not support " + method);
+	}
+
+	@Override
+	public String getCatalogName(int column) throws SQLException {
+		throw unsupported("getCatalogName");
+	}
+
+	@Override
+	public String getColumnClassName(int column) throws SQLException {
+		throw unsupported("getColumnClassName");
+	}
+
+	@Override
+	public int getColumnCount() throws SQLException {
+		throw unsupported("getColumnCount");
+	}
+
+	@Override
+	public int getColumnDisplaySize(int column) throws SQLException {
+		throw unsupported("getColumnDisplaySize");
+	}
+
+	@Override
+	public String getColumnLabel(int column) throws SQLException {
+		throw unsupported("getColumnLabel");
+	}
+
+	@Override
+	public String getColumnName(int column) throws SQLException {
+		throw unsupported("getColumnName");
+	}
+
+	@Override
+	public int getColumnType(int column) throws SQLException {
+		throw unsupported("getColumnType");
+	}
+
+	@Override
+	public String getColumnTypeName(int column) throws SQLException {
+		throw unsupported("getColumnTypeName");
+	}
+
+	@Override
+	public int getPrecision(int column) throws SQLException {
+		throw unsupported("getPrecision");
+	}
+
+	@Override
+	public int getScale(int column) throws SQLException {
+		throw unsupported("getScale");
+	}
+
+	@Override
+	public String getSchemaName(int column) throws SQLException {
+		throw unsupported("getSchemaName");
+	}
+
+	@Override
+	public String getTableName(int column) throws SQLException {
+		throw unsupported("getTableName");
+	}
+
+	@Override
+	public boolean isAutoIncrement(int column) throws SQLException {
+		throw unsupported("isAutoIncrement");
+	}
+
+	@Override
+	public boolean isCaseSensitive(int column) throws SQLException {
+		throw unsupported("isCaseSensitive");
+	}
+
+	@Override
+	public boolean isCurrency(int column) throws SQLException {
+		throw unsupported("isCurrency");
+	}
+
+	@Override
+	public boolean isDefinitelyWritable(int column) throws SQLException {
+		throw unsupported("isDefinitelyWritable");
+	}
+
+	@Override
+	public int isNullable(int column) throws SQLException {
+		throw unsupported("isNullable");
+	}
+
+	@Override
+	public boolean isReadOnly(int column) throws SQLException {
+		throw unsupported("isReadOnly");
+	}
+
+	@Override
+	public boolean isSearchable(int column) throws SQLException {
+		throw unsupported("isSearchable");
+	}
+
+	@Override
+	public boolean isSigned(int column) throws SQLException {
+		throw unsupported("isSigned");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> type) throws SQLException {
+		throw unsupported("isWrapperFor");
+	}
+
+	@Override
+	public boolean isWritable(int column) throws SQLException {
+		throw unsupported("isWritable");
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> type) throws SQLException {
+		throw unsupported("unwrap");
+	}
+
+}
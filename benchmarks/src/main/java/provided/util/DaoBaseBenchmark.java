@@ -0,0 +1,305 @@
+package provided.util;
+
+import java.math.BigDecimal;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import projects.bench.jdbc.InMemoryResultSet;
+import projects.bench.jdbc.RecordingPreparedStatement;
+import projects.entity.Category;
+import projects.entity.CategoryParameterBinder;
+import projects.entity.CategoryRowMapper;
+import projects.entity.Material;
+import projects.entity.MaterialParameterBinder;
+import projects.entity.MaterialRowMapper;
+import projects.entity.Project;
+import projects.entity.ProjectParameterBinder;
+import projects.entity.ProjectRowMapper;
+import projects.entity.Step;
+import projects.entity.StepParameterBinder;
+import projects.entity.StepRowMapper;
+import projects.mapping.ParameterBinder;
+import projects.mapping.RowMapper;
+
+/**
+ * Measures the per-row and per-parameter paths of <code>DaoBase</code>
+ * against in-memory JDBC stand-ins, so that only the mapping code is timed.
+ * Row mapping is measured for every entity type over a narrow row (only the
+ * entity's columns) and a wide row (the same columns surrounded by unrelated
+ * ones, as a <code>SELECT *</code> over a join returns), both through
+ * <code>extract</code> and through the generated <code>RowMapper</code>.
+ *
+ * Build the project and then this module, and run with the GC profiler to
+ * report allocations per operation:
+ *
+ * <pre>
+ * mvn install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ *
+ * The benchmark lives in <code>provided.util</code> so that it can call the
+ * package-private helpers of <code>DaoBase</code> directly.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DaoBaseBenchmark {
+
+	/**
+	 * The number of unrelated columns placed before and after the entity's
+	 * columns in a wide row.
+	 */
+	private static final int EXTRA_COLUMNS = 10;
+
+	/**
+	 * A column of one of the entity tables, with the Java type
+	 * <code>setParameter</code> binds it as and a sample value.
+	 */
+
+	private record Column(String label, Class<?> type, Object value) {
+	}
+
+	/**
+	 * The entity types, with the columns of their tables. The first column is
+	 * the primary key, which the generated binders skip.
+	 */
+
+	public enum Entity {
+		// @formatter:off
+		PROJECT(Project.class,
+				new Column("project_id", Integer.class, 1),
+				new Column("project_name", String.class, "Build a bookshelf"),
+				new Column("estimated_hours", BigDecimal.class, new BigDecimal("12.50")),
+				new Column("actual_hours", BigDecimal.class, new BigDecimal("14.25")),
+				new Column("difficulty", Integer.class, 3),
+				new Column("notes", String.class, "Sand between coats of finish.")),
+		MATERIAL(Material.class,
+				new Column("material_id", Integer.class, 7),
+				new Column("project_id", Integer.class, 1),
+				new Column("material_name", String.class, "1x10 oak board"),
+				new Column("num_required", Integer.class, 4),
+				new Column("cost", BigDecimal.class, new BigDecimal("38.99"))),
+		STEP(Step.class,
+				new Column("step_id", Integer.class, 12),
+				new Column("project_id", Integer.class, 1),
+				new Column("step_text", String.class, "Cut the boards to length."),
+				new Column("step_order", Integer.class, 2)),
+		CATEGORY(Category.class,
+				new Column("category_id", Integer.class, 3),
+				new Column("category_name", String.class, "Woodworking"));
+		// @formatter:on
+
+		private final Class<?> type;
+		private final Column[] columns;
+
+		Entity(Class<?> type, Column... columns) {
+			this.type = type;
+			this.columns = columns;
+		}
+
+		private RowMapper<?> rowMapper(ResultSetMetaData meta) throws SQLException {
+			switch (this) {
+				case PROJECT:
+					return new ProjectRowMapper(meta);
+				case MATERIAL:
+					return new MaterialRowMapper(meta);
+				case STEP:
+					return new StepRowMapper(meta);
+				default:
+					return new CategoryRowMapper(meta);
+			}
+		}
+
+		private ParameterBinder<?> binder() {
+			switch (this) {
+				case PROJECT:
+					return ProjectParameterBinder.INSTANCE;
+				case MATERIAL:
+					return MaterialParameterBinder.INSTANCE;
+				case STEP:
+					return StepParameterBinder.INSTANCE;
+				default:
+					return CategoryParameterBinder.INSTANCE;
+			}
+		}
+	}
+
+	/**
+	 * Whether a row holds only the entity's columns or is padded with
+	 * unrelated ones.
+	 */
+
+	public enum Width {
+		NARROW, WIDE
+	}
+
+	/**
+	 * A result set positioned on one row of an entity table, the mappers for
+	 * it, and a statement to bind the entity's columns to.
+	 */
+
+	@State(Scope.Thread)
+	public static class RowState {
+
+		@Param
+		public Entity entity;
+
+		@Param
+		public Width width;
+
+		private final DaoBase dao = new DaoBase() {
+		};
+
+		private InMemoryResultSet rs;
+		private DaoBase.MappingPlan<?> plan;
+		private RowMapper<?> rowMapper;
+		private ParameterBinder<Object> binder;
+		private RecordingPreparedStatement statement;
+		private Object mapped;
+
+		@Setup(Level.Trial)
+		@SuppressWarnings("unchecked")
+		public void setUp() throws SQLException {
+			List<String> labels = new ArrayList<>();
+			List<Object> values = new ArrayList<>();
+
+			if (width == Width.WIDE) {
+				addExtraColumns("before", labels, values);
+			}
+			for (Column column : entity.columns) {
+				labels.add(column.label());
+				values.add(column.value());
+			}
+			if (width == Width.WIDE) {
+				addExtraColumns("after", labels, values);
+			}
+
+			rs = new InMemoryResultSet(labels.toArray(new String[0]), new Object[][] { values.toArray() });
+			rs.next();
+
+			plan = dao.mappingPlan(rs, entity.type);
+			rowMapper = entity.rowMapper(rs.getMetaData());
+			binder = (ParameterBinder<Object>) entity.binder();
+			statement = new RecordingPreparedStatement(entity.columns.length);
+			mapped = rowMapper.map(rs);
+		}
+
+		private static void addExtraColumns(String prefix, List<String> labels, List<Object> values) {
+			for (int i = 0; i < EXTRA_COLUMNS; i++) {
+				labels.add(prefix + "_column_" + i);
+				values.add(i % 2 == 0 ? (Object) i : "value " + i);
+			}
+		}
+	}
+
+	/**
+	 * Field names and parameter types, for the helpers that do not depend on
+	 * a row.
+	 */
+
+	@State(Scope.Thread)
+	public static class NameState {
+
+		private final DaoBase dao = new DaoBase() {
+		};
+
+		private final String[] fieldNames = { "projectId", "projectName", "estimatedHours", "actualHours",
+				"difficulty", "notes", "materialId", "materialName", "numRequired", "cost", "stepId", "stepText",
+				"stepOrder", "categoryId", "categoryName" };
+
+		private final Class<?>[] types = { Integer.class, String.class, Double.class, BigDecimal.class,
+				LocalTime.class };
+	}
+
+	/**
+	 * Maps a row through <code>extract</code> with a mapping plan looked up
+	 * once, as a DAO reading many rows of one result set does.
+	 */
+
+	@Benchmark
+	public Object extract(RowState state) {
+		return state.dao.extract(state.rs, state.plan);
+	}
+
+	/**
+	 * Looks up the cached mapping plan from the result set's metadata and
+	 * maps one row with it, as a DAO reading a single row does.
+	 */
+
+	@Benchmark
+	public Object extractWithPlanLookup(RowState state) {
+		return state.dao.extract(state.rs, state.dao.mappingPlan(state.rs, state.entity.type));
+	}
+
+	/**
+	 * Maps a row through the generated <code>RowMapper</code>, for
+	 * comparison.
+	 */
+
+	@Benchmark
+	public Object generatedRowMapper(RowState state) throws SQLException {
+		return state.rowMapper.map(state.rs);
+	}
+
+	/**
+	 * Binds every non-key column of the row with <code>setParameter</code>.
+	 */
+
+	@Benchmark
+	public void setParameter(RowState state) throws SQLException {
+		Column[] columns = state.entity.columns;
+		for (int index = 1; index < columns.length; index++) {
+			state.dao.setParameter(state.statement, index, columns[index].value(), columns[index].type());
+		}
+	}
+
+	/**
+	 * Binds every non-key column of the row with the generated
+	 * <code>ParameterBinder</code>, for comparison.
+	 */
+
+	@Benchmark
+	public int generatedBinder(RowState state) throws SQLException {
+		return state.binder.bind(state.statement, 1, state.mapped);
+	}
+
+	@Benchmark
+	public void convertJavaClassToSqlType(NameState state, Blackhole blackhole) {
+		for (Class<?> type : state.types) {
+			blackhole.consume(state.dao.convertJavaClassToSqlType(type));
+		}
+	}
+
+	@Benchmark
+	public void camelCaseToSnakeCase(NameState state, Blackhole blackhole) {
+		for (String fieldName : state.fieldNames) {
+			blackhole.consume(DaoBase.camelCaseToSnakeCase(fieldName));
+		}
+	}
+
+}
@@ -0,0 +1,446 @@
+package projects;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import projects.entity.Project;
+import projects.entity.ProjectRenderer;
+import projects.service.ProjectService;
+
+/**
+ * Runs a script of commands against the database without prompts, for
+ * scripted maintenance jobs. Started with
+ * <code>ProjectsApp --batch [file]</code>, reading standard input when no
+ * file (or <code>-</code>) is given. Every command runs in the same
+ * <code>ProjectService</code>, and so over the same connection pool.
+ *
+ * Each line holds one command. Blank lines and lines starting with
+ * <code>#</code> are skipped. Values containing spaces are written in double
+ * quotes, with <code>\"</code> and <code>\\</code> escaping a quote and a
+ * backslash:
+ *
+ * <pre>
+ * add name="Build a deck" estimatedHours=12.5 actualHours=14 difficulty=3 notes="Use cedar"
+ * list [after=ID] [limit=N]
+ * select ID
+ * update [id=ID] [name=...] [estimatedHours=...] [actualHours=...] [difficulty=...] [notes=...]
+ * show [ID]
+ * delete [ID]
+ * </pre>
+ *
+ * <code>list</code> returns at most <code>projects.batch.listMax</code>
+ * projects (10,000 by default); a list cut short by that cap ends with
+ * <code>"more":true</code> and a <code>nextAfter</code> ID to continue from.
+ *
+ * <code>update</code>, <code>show</code> and <code>delete</code> act on the
+ * selected project when no ID is given; <code>add</code> selects the project
+ * it creates. An empty value (<code>notes=""</code>) sets a column to NULL.
+ *
+ * Each command writes one JSON object on its own line to standard output:
+ * <code>{"line":3,"command":"show","ok":true,"project":{...}}</code> on
+ * success, or <code>{"line":3,"command":"show","ok":false,"error":"..."}</code>
+ * on failure. A failed command does not stop the script; the process exits
+ * with status 1 if any command failed.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class BatchSession {
+
+	/**
+	 * Projects are listed in pages of this size.
+	 */
+	private static final int LIST_PAGE_SIZE = 500;
+
+	/**
+	 * The most projects one <code>list</code> returns, and the number it
+	 * returns without a limit. A command's result is held in memory until it
+	 * is complete, so a larger list is read with several commands, each
+	 * starting after the <code>nextAfter</code> ID of the one before.
+	 */
+	private static final int LIST_MAX = Integer.getInteger("projects.batch.listMax", 10_000);
+
+	private final ProjectService projectService;
+	private final Writer out;
+	private Integer selectedProjectId;
+	private int failures;
+
+	/**
+	 * @param projectService The service every command runs against.
+	 * @param out Where results are written. Not flushed or closed by
+	 * 					<code>run</code>.
+	 */
+
+	public BatchSession(ProjectService projectService, Writer out) {
+		this.projectService = projectService;
+		this.out = out;
+	}
+
+	/**
+	 * Runs a script from a file, or standard input, writing results to
+	 * standard output, then shuts the service down.
+	 *
+	 * @param source A file path, or <code>-</code> for standard input.
+	 * @return the number of commands that failed.
+	 * @throws IOException if the script cannot be read or the results
+	 * 					cannot be written.
+	 */
+
+	public static int runScript(String source) throws IOException {
+		ProjectService projectService = new ProjectService();
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+		try (BufferedReader in = source.equals("-")
+				? new BufferedReader(new InputStreamReader(System.in))
+				: Files.newBufferedReader(Path.of(source))) {
+			return new BatchSession(projectService, out).run(in);
+		} finally {
+			out.flush();
+			projectService.shutdown();
+		}
+	}
+
+	/**
+	 * Runs every command read from <code>in</code>, writing a result line
+	 * for each.
+	 *
+	 * @param in The script.
+	 * @return the number of commands that failed.
+	 * @throws IOException if the script cannot be read or the results
+	 * 					cannot be written.
+	 */
+
+	public int run(BufferedReader in) throws IOException {
+		String line;
+		int lineNumber = 0;
+
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			String trimmed = line.strip();
+			if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+				continue;
+			}
+
+			String command = trimmed.split("\\s", 2)[0].toLowerCase();
+			// Results are written into a buffer first, so that a command
+			// failing half way through leaves no partial line behind.
+			StringBuilder result = new StringBuilder(128);
+			try {
+				Command parsed = Command.parse(trimmed);
+				result.append("{\"line\":").append(lineNumber).append(",\"command\":");
+				ProjectRenderer.appendJsonString(result, command);
+				result.append(",\"ok\":true");
+				execute(parsed, result);
+				result.append("}\n");
+			} catch (Exception e) {
+				failures++;
+				result.setLength(0);
+				result.append("{\"line\":").append(lineNumber).append(",\"command\":");
+				ProjectRenderer.appendJsonString(result, command);
+				result.append(",\"ok\":false,\"error\":");
+				ProjectRenderer.appendJsonString(result, Objects.isNull(e.getMessage()) ? e.toString() : e.getMessage().strip());
+				result.append("}\n");
+			}
+			out.append(result);
+		}
+
+		return failures;
+	}
+
+	private void execute(Command command, StringBuilder result) throws IOException {
+		switch (command.name) {
+			case "add":
+				add(command, result);
+				break;
+			case "list":
+				list(command, result);
+				break;
+			case "select":
+				select(command, result);
+				break;
+			case "update":
+				update(command, result);
+				break;
+			case "show":
+				show(command, result);
+				break;
+			case "delete":
+				delete(command, result);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown command " + command.name + ". Expected add, list, select, update, show or delete.");
+		}
+	}
+
+	private void add(Command command, StringBuilder result) {
+		command.allow("name", "estimatedHours", "actualHours", "difficulty", "notes");
+		Project project = new Project();
+		if (!command.options.containsKey("name")) {
+			throw new IllegalArgumentException("add requires name=...");
+		}
+		applyColumns(command, project);
+		Project dbProject = projectService.addProject(project);
+		selectedProjectId = dbProject.getProjectId();
+		result.append(",\"projectId\":").append(dbProject.getProjectId());
+	}
+
+	/**
+	 * Lists project IDs and names by keyset, one page at a time, appending
+	 * each page to the result as it is read. At most <code>LIST_MAX</code>
+	 * projects are listed; if that cut the list short, the result ends with
+	 * <code>"more":true</code> and the <code>nextAfter</code> ID to continue
+	 * from.
+	 */
+
+	private void list(Command command, StringBuilder result) throws IOException {
+		command.allow("after", "limit");
+		Integer afterId = command.integer("after");
+		Integer limit = command.integer("limit");
+		if (Objects.nonNull(limit) && limit > LIST_MAX) {
+			throw new IllegalArgumentException("limit cannot be more than " + LIST_MAX + ".");
+		}
+		boolean capped = Objects.isNull(limit);
+		int remaining = capped ? LIST_MAX : limit;
+
+		result.append(",\"projects\":[");
+		boolean first = true;
+
+		while (remaining > 0) {
+			List<Project> page = projectService.fetchProjectsAfter(afterId, Math.min(remaining, LIST_PAGE_SIZE));
+			for (Project project : page) {
+				if (!first) {
+					result.append(',');
+				}
+				ProjectRenderer.renderJsonSummary(project, result);
+				first = false;
+			}
+			if (page.size() < Math.min(remaining, LIST_PAGE_SIZE)) {
+				break;
+			}
+			remaining -= page.size();
+			afterId = page.get(page.size() - 1).getProjectId();
+		}
+
+		result.append(']');
+		if (capped && remaining == 0) {
+			boolean more = !projectService.fetchProjectsAfter(afterId, 1).isEmpty();
+			result.append(",\"more\":").append(more);
+			if (more) {
+				result.append(",\"nextAfter\":").append(afterId);
+			}
+		}
+	}
+
+	private void select(Command command, StringBuilder result) throws IOException {
+		command.allow();
+		Project project = projectService.fetchProjectById(command.projectId(null));
+		selectedProjectId = project.getProjectId();
+		result.append(",\"projectId\":").append(project.getProjectId()).append(",\"projectName\":");
+		ProjectRenderer.appendJsonString(result, project.getProjectName());
+	}
+
+	/**
+	 * Changes the columns named in the command, keeping the current values
+	 * of the others, as the interactive update does. Only the columns whose
+	 * values differ are written; the result reports how many there were.
+	 */
+
+	private void update(Command command, StringBuilder result) {
+		command.allow("id", "name", "estimatedHours", "actualHours", "difficulty", "notes");
+		Integer projectId = Objects.nonNull(command.integer("id")) ? command.integer("id") : command.projectId(selectedProjectId);
+		Project current = projectService.fetchProjectById(projectId);
+
+		Project updatedProject = current.copy();
+		applyColumns(command, updatedProject);
+
+		projectService.modifyProjectDetails(updatedProject);
+		result.append(",\"projectId\":").append(projectId).append(",\"changed\":")
+				.append(updatedProject.getChangedColumns().size());
+	}
+
+	private void show(Command command, StringBuilder result) throws IOException {
+		command.allow();
+		Project project = projectService.fetchProjectById(command.projectId(selectedProjectId));
+		result.append(",\"project\":");
+		ProjectRenderer.renderJson(project, result);
+	}
+
+	private void delete(Command command, StringBuilder result) {
+		command.allow();
+		Integer projectId = command.projectId(selectedProjectId);
+		projectService.deleteProject(projectId);
+		if (projectId.equals(selectedProjectId)) {
+			selectedProjectId = null;
+		}
+		result.append(",\"projectId\":").append(projectId);
+	}
+
+	/**
+	 * Copies the project columns given in a command onto a project.
+	 */
+
+	private static void applyColumns(Command command, Project project) {
+		Map<String, String> options = command.options;
+		if (options.containsKey("name")) {
+			String name = options.get("name");
+			if (Objects.isNull(name)) {
+				throw new IllegalArgumentException("name cannot be empty.");
+			}
+			project.setProjectName(name);
+		}
+		if (options.containsKey("estimatedHours")) {
+			project.setEstimatedHours(command.decimal("estimatedHours"));
+		}
+		if (options.containsKey("actualHours")) {
+			project.setActualHours(command.decimal("actualHours"));
+		}
+		if (options.containsKey("difficulty")) {
+			Integer difficulty = command.integer("difficulty");
+			if (Objects.nonNull(difficulty) && (difficulty < 1 || difficulty > 5)) {
+				throw new IllegalArgumentException("difficulty must be between 1 and 5 inclusive.");
+			}
+			project.setDifficulty(difficulty);
+		}
+		if (options.containsKey("notes")) {
+			project.setNotes(options.get("notes"));
+		}
+	}
+
+	/**
+	 * One parsed line of a script: the command name, its bare arguments, and
+	 * its <code>key=value</code> options. An empty value is held as
+	 * <code>null</code>.
+	 */
+
+	private static class Command {
+
+		private final String name;
+		private final List<String> arguments = new ArrayList<>();
+		private final Map<String, String> options = new HashMap<>();
+
+		private Command(String name) {
+			this.name = name;
+		}
+
+		static Command parse(String line) {
+			List<String> tokens = new ArrayList<>();
+			StringBuilder token = new StringBuilder();
+			boolean inToken = false;
+			boolean quoted = false;
+
+			for (int i = 0; i < line.length(); i++) {
+				char c = line.charAt(i);
+				if (quoted) {
+					if (c == '\\' && i + 1 < line.length()) {
+						token.append(line.charAt(++i));
+					} else if (c == '"') {
+						quoted = false;
+					} else {
+						token.append(c);
+					}
+				} else if (c == '"') {
+					quoted = true;
+					inToken = true;
+				} else if (Character.isWhitespace(c)) {
+					if (inToken) {
+						tokens.add(token.toString());
+						token.setLength(0);
+						inToken = false;
+					}
+				} else {
+					token.append(c);
+					inToken = true;
+				}
+			}
+
+			if (quoted) {
+				throw new IllegalArgumentException("Unterminated quoted value.");
+			}
+			if (inToken) {
+				tokens.add(token.toString());
+			}
+
+			Command command = new Command(tokens.get(0).toLowerCase());
+			for (String argument : tokens.subList(1, tokens.size())) {
+				int equals = argument.indexOf('=');
+				if (equals > 0) {
+					String value = argument.substring(equals + 1);
+					command.options.put(argument.substring(0, equals), value.isEmpty() ? null : value);
+				} else {
+					command.arguments.add(argument);
+				}
+			}
+			return command;
+		}
+
+		/**
+		 * Rejects options the command does not take, so that a misspelt
+		 * column is not silently ignored.
+		 */
+
+		void allow(String... names) {
+			for (String key : options.keySet()) {
+				if (!List.of(names).contains(key)) {
+					throw new IllegalArgumentException(name + " does not take " + key + "=.");
+				}
+			}
+		}
+
+		/**
+		 * @return the project ID given as the command's argument, or the
+		 * given default when there is none.
+		 */
+
+		Integer projectId(Integer defaultId) {
+			if (arguments.size() > 1) {
+				throw new IllegalArgumentException(name + " takes at most one project ID.");
+			}
+			if (arguments.isEmpty()) {
+				if (Objects.isNull(defaultId)) {
+					throw new IllegalArgumentException("No project ID was given and no project is selected.");
+				}
+				return defaultId;
+			}
+			return parseInteger("project ID", arguments.get(0));
+		}
+
+		Integer integer(String key) {
+			String value = options.get(key);
+			return Objects.isNull(value) ? null : parseInteger(key, value);
+		}
+
+		BigDecimal decimal(String key) {
+			String value = options.get(key);
+			if (Objects.isNull(value)) {
+				return null;
+			}
+			try {
+				return new BigDecimal(value).setScale(2);
+			} catch (NumberFormatException | ArithmeticException e) {
+				throw new IllegalArgumentException(key + " must be a decimal number with at most two places, not " + value + ".");
+			}
+		}
+
+		private static Integer parseInteger(String key, String value) {
+			try {
+				return Integer.valueOf(value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(key + " must be an integer, not " + value + ".");
+			}
+		}
+
+	}
+
+}
@@ -1,11 +1,23 @@
 package projects;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
 
+import projects.dao.BulkImporter;
+import projects.dao.ProjectExporter;
 import projects.entity.Project;
+import projects.entity.ProjectRenderer;
 import projects.exception.DbException;
 import projects.service.ProjectService;
 
@@ -64,6 +76,22 @@ public class ProjectsApp {
 	
 	private Scanner scanner = new Scanner(System.in);
 	
+	/**
+	 * Buffers longer output, such as project details, so that it reaches the
+	 * terminal in one write instead of one per line. Flushed after each use,
+	 * before anything else is printed to <code>System.out</code>.
+	 * 
+	 */
+	
+	private Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
+	
+	/**
+	 * The number of projects shown on each page of the project list.
+	 * 
+	 */
+	
+	private int pageSize = Integer.getInteger("projects.pageSize", 20);
+	
 	
 	
 	// -------------------------------------------------------------------------
@@ -73,16 +101,119 @@ public class ProjectsApp {
 	
 	
 	/**
-	 * The entry-point for the menu-driven application.
+	 * The entry-point for the menu-driven application. Started with
+	 * <code>--batch [file]</code>, runs a script of commands without prompts
+	 * instead; see <code>BatchSession</code>. Started with
+	 * <code>--import file</code>, bulk imports the projects in a file of JSON
+	 * lines; see <code>BulkImporter</code>. Started with
+	 * <code>--export file [--binary] [--gzip]</code>, exports every project;
+	 * see <code>ProjectExporter</code>.
 	 * 
-	 * @param args included for compatibility, unused.
+	 * @param args <code>--batch</code> and an optional script file,
+	 * <code>--import</code> and a file, <code>--export</code> and a file with
+	 * its options, or nothing for the interactive menu.
 	 * 
 	 */
 	
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		if (args.length > 0 && args[0].equals("--batch")) {
+			int failures = BatchSession.runScript(args.length > 1 ? args[1] : "-");
+			System.exit(failures == 0 ? 0 : 1);
+		}
+		if (args.length > 0 && args[0].equals("--import")) {
+			System.exit(importProjects(args.length > 1 ? args[1] : "-"));
+		}
+		if (args.length > 0 && args[0].equals("--export")) {
+			System.exit(exportProjects(args));
+		}
 		new ProjectsApp().processUserSelections();
 	}
 	
+	/**
+	 * Imports the projects in a file, or standard input, reporting progress
+	 * and any errors to standard error.
+	 * 
+	 * @param source A file path, or <code>-</code> for standard input.
+	 * @return the exit status: 0 if every project was imported, otherwise 1.
+	 * 
+	 */
+	
+	private static int importProjects(String source) throws IOException {
+		ProjectService projectService = new ProjectService();
+		try (BufferedReader in = source.equals("-")
+				? new BufferedReader(new InputStreamReader(System.in), 1 << 16)
+				: Files.newBufferedReader(Path.of(source))) {
+			BulkImporter.Result result = projectService.importProjects(in, System.err);
+			result.errors().forEach(System.err::println);
+			return result.failedProjects() == 0 ? 0 : 1;
+		} finally {
+			projectService.shutdown();
+		}
+	}
+	
+	/**
+	 * Exports every project to the file named among the arguments after
+	 * <code>--export</code>, or standard output if none is named or for
+	 * <code>-</code>, as JSON lines unless <code>--binary</code> is given. The
+	 * options may come before or after the file name. The output is
+	 * compressed with gzip if <code>--gzip</code> is given or the file name
+	 * ends in <code>.gz</code>. Progress is reported to standard error.
+	 * 
+	 * Nothing is written if an argument starts with <code>-</code> but is
+	 * not <code>-</code> or a known option, or if more than one file is
+	 * named, so that a mistyped option never becomes the name of the file.
+	 * 
+	 * @param args The command-line arguments, starting with
+	 * <code>--export</code>.
+	 * @return the exit status: 0 if the export finished, 2 if the arguments
+	 * are not valid.
+	 * 
+	 */
+	
+	private static int exportProjects(String[] args) throws IOException {
+		String target = null;
+		boolean binary = false;
+		boolean gzip = false;
+		
+		for (int i = 1; i < args.length; i++) {
+			switch (args[i]) {
+				case "--binary":
+					binary = true;
+					break;
+				case "--gzip":
+					gzip = true;
+					break;
+				default:
+					if (args[i].startsWith("-") && !args[i].equals("-")) {
+						System.err.println("Unknown export option " + args[i] + ". Usage: --export [file] [--binary] [--gzip]");
+						return 2;
+					}
+					if (Objects.nonNull(target)) {
+						System.err.println("Only one export file may be named, got " + target + " and " + args[i] + ".");
+						return 2;
+					}
+					target = args[i];
+			}
+		}
+		
+		if (Objects.isNull(target)) {
+			target = "-";
+		}
+		
+		ProjectExporter.Format format = binary
+				? ProjectExporter.Format.BINARY
+				: ProjectExporter.Format.JSON_LINES;
+		gzip = gzip || target.endsWith(".gz");
+		
+		ProjectService projectService = new ProjectService();
+		try {
+			projectService.exportProjects(target, format, gzip, System.err);
+			return 0;
+		} finally {
+			projectService.shutdown();
+		}
+	}
+	
 	
 	// -------------------------------------------------------------------------
 	// ALL OTHER METHODS:
@@ -117,7 +248,7 @@ public class ProjectsApp {
 					// CASE 2: Print names of all projects in the table
 						
 					case 2:
-						printProjects();
+						pageThroughProjects("Press Enter to return to the menu");
 						break;
 						
 					// CASE 3: Select project based on user input
@@ -147,6 +278,7 @@ public class ProjectsApp {
 					case 7:
 						System.out.println("\nExiting the menu.");
 						System.out.println("Goodbye!");
+						projectService.shutdown();
 						done = true;
 						break;
 				
@@ -179,8 +311,11 @@ public class ProjectsApp {
 	 */
 	
 	private void deleteProject() {
-		printProjects();
-		Integer projectId = getIntInput("Please select the number ID of the project you wish to delete", false);
+		Integer projectId = pageThroughProjects("Please select the number ID of the project you wish to delete");
+		if (Objects.isNull(projectId)) {
+			System.out.println("\nAborting project deletion.");
+			return;
+		}
 		String confirm = getStringInput("Are you sure you wish to delete project " + projectId + "? Type [y] to confirm, [n] to abort");
 		if (confirm.equalsIgnoreCase("y")) {
 			projectService.deleteProject(projectId);
@@ -198,9 +333,10 @@ public class ProjectsApp {
 	 * 
 	 * Guides the user through each column in the <code>curProject</code> class
 	 * variable, allowing them to input new
-	 * values for each. Does so by creating a new <code>Project</code> instance
-	 * and assigning it either the updated values, or copies them from the
-	 * <code>curProject</code> object if the user does not provide a new value.
+	 * values for each. Does so by editing a copy of <code>curProject</code>,
+	 * which may be shared with the project cache, and setting only the
+	 * values the user provides. Only the columns whose values actually
+	 * changed are written, and nothing is written if none did.
 	 * 
 	 * If the transaction with the SQL database is successful, fetches the
 	 * the project row from the database with 
@@ -214,26 +350,37 @@ public class ProjectsApp {
 		if (Objects.isNull(curProject)) {
 			System.out.println("\nYou currently have no project selected. Press 3 at the main menu to select a project.");
 		} else {
-			Project updatedProject = new Project();
+			Project updatedProject = curProject.copy();
 			
 			/* For each column in the project table, display the current value,
-			 * Then set it to the user input. Finally set the ID to the same
-			 * as that of the current project.
+			 * then set it to the user input if there is any.
 			 */
 			
 			String projectName = getStringInput("Enter the project name [" + curProject.getProjectName() + "]");
-			updatedProject.setProjectName(Objects.isNull(projectName) ? curProject.getProjectName() : projectName);
-			
-			
+			if (Objects.nonNull(projectName)) {
+				updatedProject.setProjectName(projectName);
+			}
 			BigDecimal estimatedHours = getDecimalInput("Enter the estimated hours [" + curProject.getEstimatedHours() + "]", true);
-			updatedProject.setEstimatedHours(Objects.isNull(estimatedHours) ? curProject.getEstimatedHours() : estimatedHours);
+			if (Objects.nonNull(estimatedHours)) {
+				updatedProject.setEstimatedHours(estimatedHours);
+			}
 			BigDecimal actualHours = getDecimalInput("Enter the actual hours [" + curProject.getActualHours() + "]", true);
-			updatedProject.setActualHours(Objects.isNull(actualHours) ? curProject.getActualHours() : actualHours);
+			if (Objects.nonNull(actualHours)) {
+				updatedProject.setActualHours(actualHours);
+			}
 			Integer difficulty = getValidDifficulty(true);
-			updatedProject.setDifficulty(Objects.isNull(difficulty) ? curProject.getDifficulty() : difficulty);
+			if (Objects.nonNull(difficulty)) {
+				updatedProject.setDifficulty(difficulty);
+			}
 			String notes = getStringInput("Enter the project notes [" + curProject.getNotes() + "]");
-			updatedProject.setNotes(Objects.isNull(notes) ? curProject.getNotes() : notes);
-			updatedProject.setProjectId(curProject.getProjectId());
+			if (Objects.nonNull(notes)) {
+				updatedProject.setNotes(notes);
+			}
+			
+			if (!updatedProject.hasChanges()) {
+				System.out.println("Nothing was changed.");
+				return;
+			}
 			
 			boolean success = projectService.modifyProjectDetails(updatedProject);
 			if (success) {
@@ -256,8 +403,14 @@ public class ProjectsApp {
 		if (Objects.isNull(curProject)) {
 			System.out.println("\nYou currently have no project selected. Press 4 at the main menu to select a project.");
 		} else {
-			System.out.println("\nHere are the details of the currently selected project:");
-			System.out.println(curProject);
+			try {
+				out.write("\nHere are the details of the currently selected project:\n");
+				ProjectRenderer.render(curProject, out);
+				out.write('\n');
+				out.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 	}
 
@@ -265,13 +418,16 @@ public class ProjectsApp {
 	/**
 	 * Sets the value of the <code>curProject</code> class variable based on
 	 * project data retrieved from the table. Requires the user to input a
-	 * valid <code>projectId</code> after printing a list of projects to the by
-	 * calling <code>printProjects</code>.
+	 * valid <code>projectId</code> after paging through the list of projects
+	 * with <code>pageThroughProjects</code>.
 	 */
 	
 	private void selectProject() {
-		printProjects();
-		Integer projectId = getIntInput("Select a project from the above list by entering its ID (the number to its left)", false);
+		Integer projectId = pageThroughProjects("Select a project from the above list by entering its ID (the number to its left)");
+		if (Objects.isNull(projectId)) {
+			System.out.println("\nNo project selected.");
+			return;
+		}
 		curProject = null;
 		curProject = projectService.fetchProjectById(projectId);
 		System.out.println("\nYou have selected " + curProject.getProjectName());
@@ -454,25 +610,72 @@ public class ProjectsApp {
 	}
 	
 	/**
-	 * Prints the contents of the <code>operations</code> field to the terminal 
-	 * using human-readable formatting. Additionally prepends a message 
-	 * prompting the user to pick from those selections.
+	 * Shows the list of projects one page at a time. The user can move to the
+	 * next or previous page, enter a project ID, or enter nothing to leave the
+	 * list. Each page is fetched by keyset from the ID at the edge of the
+	 * current page, so moving between pages costs the same no matter how many
+	 * projects there are.
 	 * 
+	 * @param prompt Shown to the user below each page.
+	 * @return The project ID entered by the user, or <code>null</code> if
+	 * they entered nothing. Any other input is rejected and the page shown
+	 * again.
 	 */
 	
-	private void printProjects() {
-		List<Project> projects = projectService.fetchAllProjects();
-		StringBuilder projectsSB = new StringBuilder();
-		projects.forEach(project -> 
-			projectsSB.append(
-					"\n" 
-					+ project.getProjectId() 
-					+ ": "
-					+ project.getProjectName()
-				)
-			);
-		System.out.println("\nProjects:");
-		System.out.println(projectsSB.toString().indent(3));
+	private Integer pageThroughProjects(String prompt) {
+		List<Project> page = projectService.fetchProjectsAfter(null, pageSize);
+		
+		while (true) {
+			printProjects(page);
+			String input = getStringInput(prompt + " ([n] next page, [p] previous page)");
+			
+			if (Objects.isNull(input)) {
+				return null;
+			} else if (input.equalsIgnoreCase("n")) {
+				List<Project> next = page.isEmpty() 
+						? page 
+						: projectService.fetchProjectsAfter(page.get(page.size() - 1).getProjectId(), pageSize);
+				if (next.isEmpty()) {
+					System.out.println("\nThis is the last page.");
+				} else {
+					page = next;
+				}
+			} else if (input.equalsIgnoreCase("p")) {
+				List<Project> previous = page.isEmpty() 
+						? page 
+						: projectService.fetchProjectsBefore(page.get(0).getProjectId(), pageSize);
+				if (previous.isEmpty()) {
+					System.out.println("\nThis is the first page.");
+				} else {
+					page = previous;
+				}
+			} else {
+				try {
+					return Integer.valueOf(input);
+				} catch (NumberFormatException e) {
+					System.out.println("\n" + input + " is not a valid number. Enter a project ID, n, p, or nothing.");
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Prints the ID and name of each project on a page to the terminal,
+	 * through the buffered <code>out</code> writer.
+	 * 
+	 * @param page The projects to print.
+	 * 
+	 */
+	
+	private void printProjects(List<Project> page) {
+		try {
+			out.write("\nProjects:\n");
+			ProjectRenderer.renderList(page, out);
+			out.write('\n');
+			out.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
 	}
 	
 
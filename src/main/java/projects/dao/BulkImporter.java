@@ -0,0 +1,340 @@
+package projects.dao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import projects.entity.Project;
+import projects.entity.ProjectJsonParser;
+import projects.exception.DbException;
+
+/**
+ * Loads large numbers of projects, with their materials, steps and
+ * categories, from a file of JSON lines: one project per line, in the form
+ * read by <code>ProjectJsonParser</code>.
+ *
+ * The calling thread parses the input and hands the projects, in batches of
+ * <code>batchSize</code>, to a bounded queue, so that parsing never runs far
+ * ahead of the database. <code>workers</code> threads take batches from the
+ * queue, each on its own pooled connection for the whole import, and insert
+ * them with <code>ProjectDao.insertProjectGraphs</code>. Each worker commits
+ * once it has inserted at least <code>commitSize</code> projects since its
+ * last commit.
+ *
+ * A line that cannot be parsed is skipped and counted as failed. If a batch
+ * cannot be inserted, the worker rolls back and every project since its last
+ * commit is counted as failed; the import carries on with the next batch.
+ * A worker that loses its connection stops, leaving the rest of the input
+ * to the workers still running; only once every worker has stopped are the
+ * remaining batches counted as failed.
+ * Progress is reported every <code>progressIntervalSeconds</code> seconds.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class BulkImporter {
+
+	/**
+	 * Tells a worker that the input is exhausted.
+	 */
+	private static final List<Project> END = Collections.emptyList();
+
+	/**
+	 * Errors beyond this many are counted but not kept.
+	 */
+	private static final int MAX_ERRORS = 100;
+
+	private final ProjectDao projectDao;
+	private int workers = Integer.getInteger("projects.import.workers", 4);
+	private int batchSize = Integer.getInteger("projects.import.batchSize", 500);
+	private int commitSize = Integer.getInteger("projects.import.commitSize", 5_000);
+	private long progressIntervalSeconds = Long.getLong("projects.import.progressSeconds", 5L);
+
+	private final AtomicLong importedProjects = new AtomicLong();
+	private final AtomicLong importedRows = new AtomicLong();
+	private final AtomicLong failedProjects = new AtomicLong();
+	private final AtomicInteger liveWorkers = new AtomicInteger();
+	private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+	/**
+	 * @param projectDao The DAO the workers insert through.
+	 */
+
+	public BulkImporter(ProjectDao projectDao) {
+		this.projectDao = projectDao;
+	}
+
+	/**
+	 * Sets the number of writer threads. It is capped at one less than the
+	 * size of the connection pool, leaving a connection for everything else.
+	 *
+	 * @param workers The number of writer threads, at least 1.
+	 */
+
+	public void setWorkers(int workers) {
+		this.workers = workers;
+	}
+
+	/**
+	 * @param batchSize The number of projects handed to a worker at a time.
+	 */
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param commitSize The number of projects a worker inserts before it
+	 * 					commits.
+	 */
+
+	public void setCommitSize(int commitSize) {
+		this.commitSize = commitSize;
+	}
+
+	/**
+	 * @param progressIntervalSeconds How often progress is reported, or 0 to
+	 * 					report only the final totals.
+	 */
+
+	public void setProgressIntervalSeconds(long progressIntervalSeconds) {
+		this.progressIntervalSeconds = progressIntervalSeconds;
+	}
+
+	/**
+	 * The outcome of an import.
+	 *
+	 * @param projects The projects imported and committed.
+	 * @param rows The rows inserted for them, across all four tables.
+	 * @param failedProjects The projects that were not imported.
+	 * @param elapsedNanos How long the import took.
+	 * @param errors The first errors met, each with its line or batch.
+	 */
+
+	public record Result(long projects, long rows, long failedProjects, long elapsedNanos, List<String> errors) {
+
+		/**
+		 * @return rows inserted per second.
+		 */
+
+		public double rowsPerSecond() {
+			return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+		}
+
+	}
+
+	/**
+	 * Imports every project read from <code>in</code>, returning once all
+	 * of them have been committed or have failed.
+	 *
+	 * @param in JSON lines, one project per line. Blank lines are skipped.
+	 * @param progress Where progress is reported, or <code>null</code>.
+	 * @return the totals.
+	 * @throws IOException if the input cannot be read.
+	 */
+
+	public Result importFrom(BufferedReader in, PrintStream progress) throws IOException {
+		importedProjects.set(0);
+		importedRows.set(0);
+		failedProjects.set(0);
+		errors.clear();
+
+		int workerCount = Math.max(1, Math.min(workers, DbConnection.getMaxPoolSize() - 1));
+		BlockingQueue<List<Project>> queue = new ArrayBlockingQueue<>(workerCount * 2);
+		long start = System.nanoTime();
+		liveWorkers.set(workerCount);
+
+		List<Thread> threads = new ArrayList<>(workerCount);
+		for (int i = 1; i <= workerCount; i++) {
+			Thread thread = new Thread(() -> write(queue), "projects-import-" + i);
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+
+		ScheduledExecutorService reporter = null;
+		if (Objects.nonNull(progress) && progressIntervalSeconds > 0) {
+			reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "projects-import-progress");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long[] last = { start, 0 };
+			reporter.scheduleAtFixedRate(() -> {
+				long now = System.nanoTime();
+				long rows = importedRows.get();
+				progress.printf("Imported %,d projects (%,d rows), %,d failed; %,.0f rows/s, queue %d/%d%n",
+						importedProjects.get(), rows, failedProjects.get(),
+						(rows - last[1]) * 1e9 / Math.max(1, now - last[0]), queue.size(), workerCount * 2);
+				last[0] = now;
+				last[1] = rows;
+			}, progressIntervalSeconds, progressIntervalSeconds, TimeUnit.SECONDS);
+		}
+
+		try {
+			read(in, queue);
+		} finally {
+			try {
+				for (int i = 0; i < workerCount; i++) {
+					queue.put(END);
+				}
+				for (Thread thread : threads) {
+					thread.join();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new DbException("Interrupted while waiting for the import to finish.");
+			} finally {
+				if (Objects.nonNull(reporter)) {
+					reporter.shutdownNow();
+				}
+			}
+		}
+
+		Result result = new Result(importedProjects.get(), importedRows.get(), failedProjects.get(),
+				System.nanoTime() - start, List.copyOf(errors));
+		if (Objects.nonNull(progress)) {
+			progress.printf("Imported %,d projects (%,d rows) in %.1f s, %,.0f rows/s; %,d failed%n",
+					result.projects(), result.rows(), result.elapsedNanos() / 1e9, result.rowsPerSecond(),
+					result.failedProjects());
+		}
+		return result;
+	}
+
+	/**
+	 * Parses the input on the calling thread and queues it in batches.
+	 */
+
+	private void read(BufferedReader in, BlockingQueue<List<Project>> queue) throws IOException {
+		ProjectJsonParser parser = new ProjectJsonParser();
+		List<Project> batch = new ArrayList<>(batchSize);
+		String line;
+		long lineNumber = 0;
+
+		try {
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				if (line.isBlank()) {
+					continue;
+				}
+				try {
+					batch.add(parser.parse(line));
+				} catch (IllegalArgumentException e) {
+					failedProjects.incrementAndGet();
+					addError("Line " + lineNumber + ": " + e.getMessage());
+					continue;
+				}
+				if (batch.size() == batchSize) {
+					queue.put(batch);
+					batch = new ArrayList<>(batchSize);
+				}
+			}
+			if (!batch.isEmpty()) {
+				queue.put(batch);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while reading the import.");
+		}
+	}
+
+	/**
+	 * The loop each worker runs: takes batches until it is told the input
+	 * is exhausted, committing every <code>commitSize</code> projects and
+	 * once more at the end. A worker that stops early, for whatever reason,
+	 * just exits while other workers are still taking batches. The last
+	 * worker to stop, if it stops early, drains the queue until its end
+	 * marker, so that the reader is never left blocked on a full queue.
+	 */
+
+	private void write(BlockingQueue<List<Project>> queue) {
+		long uncommittedProjects = 0;
+		long uncommittedRows = 0;
+		boolean reachedEnd = false;
+
+		try (Connection conn = DbConnection.getConnection()) {
+			projectDao.beginImport(conn);
+
+			while (true) {
+				List<Project> batch = queue.take();
+				if (batch == END) {
+					reachedEnd = true;
+					break;
+				}
+				uncommittedProjects += batch.size();
+				try {
+					uncommittedRows += projectDao.insertProjectGraphs(conn, batch);
+					if (uncommittedProjects >= commitSize) {
+						projectDao.commitImport(conn);
+						importedProjects.addAndGet(uncommittedProjects);
+						importedRows.addAndGet(uncommittedRows);
+						uncommittedProjects = 0;
+						uncommittedRows = 0;
+						projectDao.beginImport(conn);
+					}
+				} catch (Exception e) {
+					failedProjects.addAndGet(uncommittedProjects);
+					addError("Batch starting with project " + batch.get(0).getProjectName() + ": " + e);
+					uncommittedProjects = 0;
+					uncommittedRows = 0;
+					projectDao.rollbackImport(conn);
+					projectDao.beginImport(conn);
+				}
+			}
+
+			projectDao.commitImport(conn);
+			importedProjects.addAndGet(uncommittedProjects);
+			importedRows.addAndGet(uncommittedRows);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failedProjects.addAndGet(uncommittedProjects);
+		} catch (SQLException | RuntimeException e) {
+			failedProjects.addAndGet(uncommittedProjects);
+			addError(Thread.currentThread().getName() + " stopped: " + e);
+		} finally {
+			if (liveWorkers.decrementAndGet() == 0 && !reachedEnd) {
+				drain(queue);
+			}
+		}
+	}
+
+	/**
+	 * Counts every batch left once no worker is running as failed, so that
+	 * the reader is not left blocked on a full queue.
+	 */
+
+	private void drain(BlockingQueue<List<Project>> queue) {
+		try {
+			while (true) {
+				List<Project> batch = queue.take();
+				if (batch == END) {
+					return;
+				}
+				failedProjects.addAndGet(batch.size());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void addError(String error) {
+		if (errors.size() < MAX_ERRORS) {
+			errors.add(error);
+		}
+	}
+
+}
@@ -0,0 +1,226 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import projects.entity.Category;
+import projects.entity.CategoryRowMapper;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/**
+ * Holds every row of the category table in memory, so that loading a
+ * project's categories only needs their IDs from the project_category table.
+ * Each category is represented by a single shared <code>Category</code>
+ * instance, which callers must not modify.
+ *
+ * The table is read in full the first time a category is requested, and again
+ * whenever <code>refresh</code> is called, on a fixed interval, or when an ID
+ * that is not yet known is requested. A refresh builds a new snapshot and
+ * swaps it in, so readers never block and never see a partly loaded table.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class CategoryRegistry extends DaoBase {
+
+	/**
+	 * Constant representing the name of the category table.
+	 */
+	private static final String CATEGORY_TABLE = "category";
+
+	// @formatter:off
+	private static final NamedStatement SELECT_ALL_CATEGORIES = registerStatement("category.selectAll", ""
+			+ "SELECT category_id, category_name FROM " + CategoryRegistry.CATEGORY_TABLE
+			+ " ORDER BY category_id");
+	// @formatter:on
+
+	/**
+	 * The current snapshot of the table, or <code>null</code> before it is
+	 * first loaded. Never modified once published.
+	 */
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Creates a registry that reloads the table every
+	 * <code>refreshIntervalSeconds</code>, or never if it is not positive.
+	 *
+	 * @param refreshIntervalSeconds How often the table is reloaded.
+	 */
+
+	public CategoryRegistry(long refreshIntervalSeconds) {
+		if (refreshIntervalSeconds > 0) {
+			ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "projects-category-refresh");
+				thread.setDaemon(true);
+				return thread;
+			});
+			refresher.scheduleWithFixedDelay(() -> {
+				try {
+					refresh();
+				} catch (DbException e) {
+					// Keep serving the previous snapshot; the next refresh may succeed.
+				}
+			}, refreshIntervalSeconds, refreshIntervalSeconds, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Returns the shared instance for a category ID. If the ID is not in the
+	 * current snapshot, the table is reloaded once before giving up.
+	 *
+	 * @param categoryId The category ID.
+	 * @return the <code>Category</code>, or <code>null</code> if there is no
+	 * such category.
+	 * @throws DbException if the table needs to be loaded and cannot be.
+	 */
+
+	public Category get(int categoryId) {
+		Snapshot current = snapshot;
+		Category category = Objects.isNull(current) ? null : current.byId.get(categoryId);
+		if (Objects.isNull(category)) {
+			category = load().byId.get(categoryId);
+		}
+		return category;
+	}
+
+	/**
+	 * Like <code>get(int)</code>, but if the table has to be reloaded it is
+	 * read on the given connection instead of a newly borrowed one. Used by
+	 * the DAO while it already holds a connection, so that a miss cannot wait
+	 * on the pool for a second connection.
+	 *
+	 * @param conn A <code>Connection</code> with no open result sets.
+	 * @param categoryId The category ID.
+	 * @return the <code>Category</code>, or <code>null</code> if there is no
+	 * such category.
+	 * @throws SQLException if the table needs to be loaded and cannot be.
+	 */
+
+	Category get(Connection conn, int categoryId) throws SQLException {
+		Snapshot current = snapshot;
+		Category category = Objects.isNull(current) ? null : current.byId.get(categoryId);
+		if (Objects.isNull(category)) {
+			category = load(conn).byId.get(categoryId);
+		}
+		return category;
+	}
+
+	/**
+	 * Looks a category up by name, reloading the table on the given
+	 * connection if the name is not known. If several categories share the
+	 * name, the one with the lowest ID is returned.
+	 *
+	 * @param conn A <code>Connection</code> with no open result sets.
+	 * @param categoryName The category name.
+	 * @return the <code>Category</code>, or <code>null</code> if there is no
+	 * such category.
+	 * @throws SQLException if the table needs to be loaded and cannot be.
+	 */
+
+	Category getByName(Connection conn, String categoryName) throws SQLException {
+		Snapshot current = snapshot;
+		Category category = Objects.isNull(current) ? null : current.byName.get(categoryName);
+		if (Objects.isNull(category)) {
+			category = load(conn).byName.get(categoryName);
+		}
+		return category;
+	}
+
+	/**
+	 * @return every category, in ID order.
+	 * @throws DbException if the table needs to be loaded and cannot be.
+	 */
+
+	public List<Category> getAll() {
+		Snapshot current = snapshot;
+		return (Objects.isNull(current) ? load() : current).all;
+	}
+
+	/**
+	 * Reloads the whole category table. Categories that have not changed keep
+	 * their existing instance.
+	 *
+	 * @throws DbException if the table cannot be read.
+	 */
+
+	public void refresh() {
+		load();
+	}
+
+	/**
+	 * Reads the whole category table on a borrowed connection.
+	 *
+	 * @return the new snapshot.
+	 */
+
+	private Snapshot load() {
+		try (Connection conn = DbConnection.getConnection()) {
+			return load(conn);
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * Reads the whole category table and publishes it as the new snapshot.
+	 *
+	 * @param conn The connection to read the table on.
+	 * @return the new snapshot.
+	 */
+
+	private synchronized Snapshot load(Connection conn) throws SQLException {
+		Snapshot previous = snapshot;
+
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_ALL_CATEGORIES)) {
+			try (ResultSet rs = statement.executeQuery()) {
+				CategoryRowMapper mapper = new CategoryRowMapper(rs.getMetaData());
+				List<Category> all = new ArrayList<>();
+				while (rs.next()) {
+					Category loaded = mapper.map(rs);
+					Category existing = Objects.isNull(previous) ? null : previous.byId.get(loaded.getCategoryId());
+					boolean unchanged = Objects.nonNull(existing)
+							&& Objects.equals(existing.getCategoryName(), loaded.getCategoryName());
+					all.add(unchanged ? existing : loaded);
+				}
+				Snapshot next = new Snapshot(all);
+				snapshot = next;
+				return next;
+			}
+		}
+	}
+
+	/**
+	 * An immutable copy of the category table.
+	 */
+
+	private static final class Snapshot {
+
+		private final List<Category> all;
+		private final IntObjectMap<Category> byId;
+		private final Map<String, Category> byName;
+
+		private Snapshot(List<Category> all) {
+			this.all = List.copyOf(all);
+			this.byId = new IntObjectMap<>(all.size());
+			this.byName = new HashMap<>();
+			all.forEach(category -> {
+				byId.put(category.getCategoryId(), category);
+				byName.putIfAbsent(category.getCategoryName(), category);
+			});
+		}
+	}
+
+}
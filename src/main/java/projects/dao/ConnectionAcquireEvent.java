@@ -0,0 +1,39 @@
+package projects.dao;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event covering one borrow from the shared
+ * <code>ConnectionPool</code>. Only borrows slower than the threshold set in
+ * the recording's settings are recorded, so a recording made with
+ * <code>projects.jfc</code> shows the callers that waited for a connection
+ * and how busy the pool was at the time.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+@Name("projects.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({ "Projects", "Database" })
+@Description("Time spent waiting to borrow a pooled connection")
+@Threshold("5 ms")
+@StackTrace(true)
+class ConnectionAcquireEvent extends jdk.jfr.Event {
+
+	@Label("Active Connections")
+	@Description("Connections borrowed once this borrow completed")
+	int activeConnections;
+
+	@Label("Maximum Connections")
+	int maxConnections;
+
+	@Label("Succeeded")
+	boolean succeeded;
+
+}
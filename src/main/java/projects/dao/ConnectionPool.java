@@ -0,0 +1,383 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import projects.exception.DbException;
+
+/**
+ * A bounded pool of physical JDBC connections.
+ *
+ * Borrowing is lock-free on the fast path: a permit is taken from a
+ * <code>Semaphore</code> (a single CAS when one is available) and an idle
+ * connection is popped from a <code>ConcurrentLinkedDeque</code>. Idle
+ * connections are used most-recently-returned first, so the ones at the tail
+ * of the deque age out and are closed by a background eviction task once the
+ * pool is above its minimum size.
+ *
+ * Each physical connection keeps a <code>StatementCache</code>, so statements
+ * prepared with the same SQL by successive borrowers are prepared only once.
+ *
+ * Callers receive a <code>LeasedConnection</code> whose <code>close()</code>
+ * hands the physical connection back to the pool. Before it is made available again the
+ * connection is rolled back if a transaction was left open, and its
+ * auto-commit, transaction isolation and read-only flags are restored to the
+ * values it had when it was first opened. Statements the borrower left open
+ * are closed.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class ConnectionPool implements AutoCloseable {
+
+	/**
+	 * The JDBC url used to open physical connections.
+	 */
+	private final String url;
+	/**
+	 * The number of physical connections kept open even when idle.
+	 */
+	private final int minSize;
+	/**
+	 * The maximum number of connections that may be borrowed at once.
+	 */
+	private final int maxSize;
+	/**
+	 * How long a connection above <code>minSize</code> may sit idle before
+	 * it is closed.
+	 */
+	private final long idleTimeoutMillis;
+	/**
+	 * How long a borrower waits for a free connection before giving up.
+	 */
+	private final long borrowTimeoutMillis;
+	/**
+	 * Connections idle for less than this are handed out without a
+	 * validation round trip.
+	 */
+	private final long validationWindowMillis;
+	/**
+	 * The number of prepared statements cached on each physical connection,
+	 * or 0 to disable statement caching.
+	 */
+	private final int statementCacheSize;
+	/**
+	 * The properties physical connections are opened with, which turn on the
+	 * driver's statement cache.
+	 */
+	private final Properties connectionProperties;
+
+	/**
+	 * Idle connections, most recently returned first.
+	 */
+	private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+	/**
+	 * Bounds the number of borrowed connections to <code>maxSize</code>.
+	 */
+	private final Semaphore permits;
+	/**
+	 * The number of physical connections currently open, borrowed or idle.
+	 */
+	private final AtomicInteger openCount = new AtomicInteger();
+	/**
+	 * Runs the idle eviction task.
+	 */
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates a pool and opens <code>minSize</code> connections up front.
+	 *
+	 * @param url The JDBC url used to open physical connections.
+	 * @param minSize The number of connections kept open even when idle.
+	 * @param maxSize The maximum number of connections borrowed at once.
+	 * @param idleTimeoutMillis How long a surplus connection may stay idle.
+	 * @param borrowTimeoutMillis How long a borrower waits for a connection.
+	 * @param validationWindowMillis Connections idle for less than this are
+	 * 					not validated on borrow.
+	 * @param statementCacheSize The number of prepared statements cached on
+	 * 					each connection, or 0 for none.
+	 */
+
+	public ConnectionPool(String url, int minSize, int maxSize, long idleTimeoutMillis, long borrowTimeoutMillis,
+			long validationWindowMillis, int statementCacheSize) {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+		}
+		this.url = url;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.validationWindowMillis = validationWindowMillis;
+		this.statementCacheSize = statementCacheSize;
+		this.connectionProperties = StatementCache.driverProperties(statementCacheSize);
+		this.permits = new Semaphore(maxSize);
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "projects-pool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(1000, idleTimeoutMillis / 2);
+		housekeeper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+
+		for (int i = 0; i < minSize; i++) {
+			try {
+				idle.offerLast(open());
+			} catch (SQLException e) {
+				// The database may not be up yet; connections are opened on demand.
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Borrows a connection from the pool, opening a new physical connection
+	 * if none is idle.
+	 *
+	 * @return a <code>Connection</code> that returns itself to the pool when
+	 * closed.
+	 * @throws DbException if the pool is closed, exhausted for longer than the
+	 * borrow timeout, or a connection cannot be opened.
+	 */
+
+	public Connection borrow() {
+		if (closed) {
+			throw new DbException("The connection pool has been closed.");
+		}
+		acquirePermit();
+		try {
+			PooledConnection pooled;
+			while ((pooled = idle.pollFirst()) != null) {
+				if (isUsable(pooled)) {
+					return pooled.lease();
+				}
+				destroy(pooled);
+			}
+			return open().lease();
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e instanceof DbException ? (DbException) e : new DbException("Unable to get connection with url " + url, e);
+		}
+	}
+
+	/**
+	 * @return the number of physical connections currently open.
+	 */
+
+	public int getOpenCount() {
+		return openCount.get();
+	}
+
+	/**
+	 * @return the maximum number of connections that may be borrowed at once.
+	 */
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of connections currently borrowed.
+	 */
+
+	public int getActiveCount() {
+		return maxSize - permits.availablePermits();
+	}
+
+	/**
+	 * Closes all idle connections and stops the eviction task. Borrowed
+	 * connections are closed when they are returned.
+	 */
+
+	@Override
+	public void close() {
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			destroy(pooled);
+		}
+	}
+
+	/**
+	 * Takes a permit without blocking if one is available, otherwise waits up
+	 * to the borrow timeout.
+	 */
+
+	private void acquirePermit() {
+		if (permits.tryAcquire()) {
+			return;
+		}
+		try {
+			if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw new DbException("Timed out after " + borrowTimeoutMillis + "ms waiting for a connection ("
+						+ maxSize + " in use).");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DbException("Interrupted while waiting for a connection.", e);
+		}
+	}
+
+	/**
+	 * Validates a connection that has been idle longer than the validation
+	 * window. Recently used connections are trusted without a round trip.
+	 */
+
+	private boolean isUsable(PooledConnection pooled) {
+		long idleFor = System.currentTimeMillis() - pooled.lastReturned;
+		if (idleFor < validationWindowMillis) {
+			return true;
+		}
+		try {
+			return pooled.physical.isValid(5);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Opens a new physical connection and records its initial settings.
+	 */
+
+	private PooledConnection open() throws SQLException {
+		Connection physical = DriverManager.getConnection(url, connectionProperties);
+		openCount.incrementAndGet();
+		return new PooledConnection(physical);
+	}
+
+	/**
+	 * Closes a physical connection, ignoring any error.
+	 */
+
+	private void destroy(PooledConnection pooled) {
+		openCount.decrementAndGet();
+		try {
+			pooled.physical.close();
+		} catch (SQLException e) {
+			// The connection is being discarded; nothing more to do.
+		}
+	}
+
+	/**
+	 * Resets a connection and makes it available to the next borrower. A
+	 * connection that cannot be reset is discarded instead.
+	 */
+
+	private void release(PooledConnection pooled) {
+		try {
+			if (closed || !pooled.reset()) {
+				destroy(pooled);
+			} else {
+				pooled.lastReturned = System.currentTimeMillis();
+				idle.offerFirst(pooled);
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Closes connections at the tail of the idle deque that have been idle
+	 * longer than the idle timeout, down to <code>minSize</code>, and tops the
+	 * pool back up to <code>minSize</code> if it has fallen below it. Each
+	 * connection opened to top up holds a permit while it is opened, as a
+	 * borrower would, so that the pool never holds more than
+	 * <code>maxSize</code> connections.
+	 */
+
+	private void evictIdle() {
+		long cutoff = System.currentTimeMillis() - idleTimeoutMillis;
+		Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+		while (oldestFirst.hasNext() && openCount.get() > minSize) {
+			PooledConnection pooled = oldestFirst.next();
+			if (pooled.lastReturned < cutoff && idle.removeLastOccurrence(pooled)) {
+				destroy(pooled);
+			}
+		}
+		while (!closed && openCount.get() < minSize && permits.tryAcquire()) {
+			try {
+				idle.offerLast(open());
+			} catch (SQLException e) {
+				break;
+			} finally {
+				permits.release();
+			}
+		}
+	}
+
+	/**
+	 * A physical connection together with the settings it is restored to
+	 * when it is returned.
+	 */
+
+	private final class PooledConnection {
+
+		private final Connection physical;
+		private final boolean defaultAutoCommit;
+		private final int defaultIsolation;
+		private final boolean defaultReadOnly;
+		private final StatementCache statementCache;
+		private volatile long lastReturned = System.currentTimeMillis();
+
+		private PooledConnection(Connection physical) throws SQLException {
+			this.physical = physical;
+			this.statementCache = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize) : null;
+			this.defaultAutoCommit = physical.getAutoCommit();
+			this.defaultIsolation = physical.getTransactionIsolation();
+			this.defaultReadOnly = physical.isReadOnly();
+		}
+
+		/**
+		 * Wraps the physical connection for a single borrower.
+		 */
+
+		private Connection lease() {
+			return new LeasedConnection(physical, statementCache, () -> release(this));
+		}
+
+		/**
+		 * Rolls back any open transaction and restores the original settings.
+		 *
+		 * @return <code>false</code> if the connection is no longer usable.
+		 */
+
+		private boolean reset() {
+			try {
+				if (physical.isClosed()) {
+					return false;
+				}
+				if (!physical.getAutoCommit()) {
+					physical.rollback();
+				}
+				if (physical.getAutoCommit() != defaultAutoCommit) {
+					physical.setAutoCommit(defaultAutoCommit);
+				}
+				if (physical.getTransactionIsolation() != defaultIsolation) {
+					physical.setTransactionIsolation(defaultIsolation);
+				}
+				if (physical.isReadOnly() != defaultReadOnly) {
+					physical.setReadOnly(defaultReadOnly);
+				}
+				physical.clearWarnings();
+				return true;
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+	}
+
+}
@@ -5,6 +5,9 @@ import java.sql.DriverManager;
 import java.sql.SQLException;
 
 import projects.exception.DbException;
+import projects.metrics.Metrics;
+import projects.metrics.Timer;
+import provided.util.DaoBase;
 
 public class DbConnection {
 	
@@ -28,27 +31,119 @@ public class DbConnection {
 	 * Constant representing the port number.
 	 */
 	private static final int PORT = 3306;
+	/**
+	 * Constant representing the JDBC url of the pooled connections.
+	 */
+	private static final String URL = String.format(
+			"jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL=false&rewriteBatchedStatements=true&useServerPrepStmts=true",
+			HOST, PORT, SCHEMA, USER, PASSWORD);
+	/**
+	 * Records how long callers wait to borrow a connection.
+	 */
+	private static final Timer ACQUIRE = Metrics.timer("connection.acquire");
+	
+	/**
+	 * Lazily creates the shared <code>ConnectionPool</code> the first time a
+	 * connection is requested. Pool sizing can be overridden with the
+	 * <code>projects.pool.*</code> system properties.
+	 */
+	private static class PoolHolder {
+		
+		private static final ConnectionPool POOL = new ConnectionPool(
+				URL,
+				Integer.getInteger("projects.pool.minSize", 2),
+				Integer.getInteger("projects.pool.maxSize", 10),
+				Long.getLong("projects.pool.idleTimeoutMillis", 60_000L),
+				Long.getLong("projects.pool.borrowTimeoutMillis", 30_000L),
+				Long.getLong("projects.pool.validationWindowMillis", 500L),
+				Integer.getInteger("projects.pool.statementCacheSize", 64));
+		
+	}
 	
 	/**
-	 * Formats all <code>String</code> constants owned by the 
-	 * <code>DbConnection</code> and passes the resulting <code>String</code>
-	 * to <code>DriverManager.getConnection(String url)</code>.
+	 * Borrows a <code>Connection</code> from the shared pool. Closing the
+	 * returned connection hands it back to the pool rather than closing the
+	 * underlying socket. The time spent waiting is recorded in the
+	 * <code>connection.acquire</code> timer and, during a flight recording, as
+	 * a <code>projects.ConnectionAcquire</code> event and as the connection
+	 * wait of the first <code>projects.Query</code> event on the connection.
 	 * 
 	 * @return the <code>Connection</code> instance, if a connection is
 	 * obtained.
 	 * 
-	 * @throws DbException (when catching a SQLException).
+	 * @throws DbException if no connection could be obtained.
 	 */
 	
 	public static Connection getConnection() {
-		String url = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s&useSSL=false", HOST, PORT, SCHEMA, USER, PASSWORD);
+		ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+		boolean tracingQueries = DaoBase.isQueryTracingEnabled();
+		if (!Metrics.ENABLED && !event.isEnabled() && !tracingQueries) {
+			return PoolHolder.POOL.borrow();
+		}
+		event.begin();
+		long start = System.nanoTime();
+		boolean succeeded = false;
 		try {
-			Connection conn = DriverManager.getConnection(url);
-			//System.out.println("Connected to schema " + SCHEMA + " with url " + url);
+			Connection conn = PoolHolder.POOL.borrow();
+			succeeded = true;
 			return conn;
+		} finally {
+			if (Metrics.ENABLED) {
+				ACQUIRE.record(start, succeeded);
+			}
+			if (tracingQueries) {
+				DaoBase.recordConnectionWait(System.nanoTime() - start);
+			}
+			if (event.isEnabled()) {
+				event.end();
+				if (event.shouldCommit()) {
+					event.activeConnections = PoolHolder.POOL.getActiveCount();
+					event.maxConnections = PoolHolder.POOL.getMaxSize();
+					event.succeeded = succeeded;
+					event.commit();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Opens a connection, outside the pool, on which statements with a fetch
+	 * size read their results through a server-side cursor rather than all
+	 * at once. Only long reads that stream a whole table need this; the
+	 * pooled connections leave cursor fetching off, so ordinary queries keep
+	 * their single round trip. Closing the returned connection closes the
+	 * underlying socket.
+	 * 
+	 * @return the <code>Connection</code> instance, if a connection is
+	 * obtained.
+	 * 
+	 * @throws DbException if no connection could be obtained.
+	 */
+	
+	public static Connection getCursorConnection() {
+		try {
+			return DriverManager.getConnection(URL + "&useCursorFetch=true");
 		} catch (SQLException e) {
-			throw new DbException("Unable to get connection with url " + url);
+			throw new DbException("Unable to get connection with url " + URL, e);
 		}
 	}
+	
+	/**
+	 * @return the maximum number of connections the shared pool lends out at
+	 * once.
+	 */
+	
+	public static int getMaxPoolSize() {
+		return PoolHolder.POOL.getMaxSize();
+	}
+	
+	/**
+	 * Closes every idle pooled connection. Intended to be called once as the
+	 * application exits.
+	 */
+	
+	public static void shutdown() {
+		PoolHolder.POOL.close();
+	}
 
 }
@@ -0,0 +1,296 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.metrics.Metrics;
+import projects.metrics.Timer;
+
+/**
+ * A <code>ProjectDao</code> that times every public operation and the
+ * transaction boundaries inherited from <code>DaoBase</code>. Each is
+ * recorded in a <code>Timer</code> named <code>dao.&lt;method&gt;</code> or
+ * <code>transaction.&lt;boundary&gt;</code>, and exposed over JMX by
+ * <code>Metrics</code>. A call that throws is counted as an error.
+ *
+ * The <code>transaction</code> timer measures from
+ * <code>startTransaction</code> to the commit or rollback that ends it on the
+ * same thread, counting rolled back transactions as errors; the
+ * <code>transaction.commit</code> and
+ * <code>transaction.rollback</code> timers measure the commit and rollback
+ * calls themselves.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class InstrumentedProjectDao extends ProjectDao {
+
+	private static final Timer INSERT_PROJECT = Metrics.timer("dao.insertProject");
+	private static final Timer INSERT_PROJECTS = Metrics.timer("dao.insertProjects");
+	private static final Timer ADD_STEPS = Metrics.timer("dao.addSteps");
+	private static final Timer ADD_MATERIALS = Metrics.timer("dao.addMaterials");
+	private static final Timer STREAM_ALL = Metrics.timer("dao.streamAllProjects.open");
+	private static final Timer STREAM_GRAPHS = Metrics.timer("dao.streamAllProjectGraphs.open");
+	private static final Timer FETCH_AFTER = Metrics.timer("dao.fetchProjectsAfter");
+	private static final Timer FETCH_BEFORE = Metrics.timer("dao.fetchProjectsBefore");
+	private static final Timer FETCH_BY_ID = Metrics.timer("dao.fetchProjectById");
+	private static final Timer FETCH_BY_IDS = Metrics.timer("dao.fetchProjectsByIds");
+	private static final Timer REFRESH_CATEGORIES = Metrics.timer("dao.refreshCategories");
+	private static final Timer MODIFY = Metrics.timer("dao.modifyProjectDetails");
+	private static final Timer EXECUTE_GROUP = Metrics.timer("dao.executeGroup");
+	private static final Timer DELETE = Metrics.timer("dao.deleteProject");
+
+	private static final Timer BEGIN = Metrics.timer("transaction.begin");
+	private static final Timer COMMIT = Metrics.timer("transaction.commit");
+	private static final Timer ROLLBACK = Metrics.timer("transaction.rollback");
+	private static final Timer TRANSACTION = Metrics.timer("transaction");
+
+	/**
+	 * When the transaction in progress on each thread started.
+	 */
+	private static final ThreadLocal<long[]> TRANSACTION_START = ThreadLocal.withInitial(() -> new long[1]);
+
+	@Override
+	public Project insertProject(Project project) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			Project result = super.insertProject(project);
+			succeeded = true;
+			return result;
+		} finally {
+			INSERT_PROJECT.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Project> insertProjects(List<Project> projects) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Project> result = super.insertProjects(projects);
+			succeeded = true;
+			return result;
+		} finally {
+			INSERT_PROJECTS.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Step> result = super.addSteps(projectId, steps);
+			succeeded = true;
+			return result;
+		} finally {
+			ADD_STEPS.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Material> addMaterials(Integer projectId, List<Material> materials) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Material> result = super.addMaterials(projectId, materials);
+			succeeded = true;
+			return result;
+		} finally {
+			ADD_MATERIALS.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public Stream<Project> streamAllProjects() {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			Stream<Project> result = super.streamAllProjects();
+			succeeded = true;
+			return result;
+		} finally {
+			STREAM_ALL.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public Stream<Project> streamAllProjectGraphs() {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			Stream<Project> result = super.streamAllProjectGraphs();
+			succeeded = true;
+			return result;
+		} finally {
+			STREAM_GRAPHS.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Project> fetchProjectsAfter(Integer afterId, int limit) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Project> result = super.fetchProjectsAfter(afterId, limit);
+			succeeded = true;
+			return result;
+		} finally {
+			FETCH_AFTER.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Project> fetchProjectsBefore(Integer beforeId, int limit) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Project> result = super.fetchProjectsBefore(beforeId, limit);
+			succeeded = true;
+			return result;
+		} finally {
+			FETCH_BEFORE.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public Optional<Project> fetchProjectById(Integer projectId) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			Optional<Project> result = super.fetchProjectById(projectId);
+			succeeded = true;
+			return result;
+		} finally {
+			FETCH_BY_ID.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<Project> result = super.fetchProjectsByIds(projectIds);
+			succeeded = true;
+			return result;
+		} finally {
+			FETCH_BY_IDS.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public void refreshCategories() {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			super.refreshCategories();
+			succeeded = true;
+		} finally {
+			REFRESH_CATEGORIES.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public boolean modifyProjectDetails(Project updatedProject) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			boolean result = super.modifyProjectDetails(updatedProject);
+			succeeded = true;
+			return result;
+		} finally {
+			MODIFY.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public List<GroupOutcome> executeGroup(List<? extends GroupedWrite<?>> writes) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			List<GroupOutcome> result = super.executeGroup(writes);
+			succeeded = true;
+			return result;
+		} finally {
+			EXECUTE_GROUP.record(start, succeeded);
+		}
+	}
+
+	@Override
+	public boolean deleteProject(Integer projectId) {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			boolean result = super.deleteProject(projectId);
+			succeeded = true;
+			return result;
+		} finally {
+			DELETE.record(start, succeeded);
+		}
+	}
+
+	@Override
+	protected void startTransaction(Connection conn) throws SQLException {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			super.startTransaction(conn);
+			succeeded = true;
+		} finally {
+			BEGIN.record(start, succeeded);
+			TRANSACTION_START.get()[0] = start;
+		}
+	}
+
+	@Override
+	protected void commitTransaction(Connection conn) throws SQLException {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			super.commitTransaction(conn);
+			succeeded = true;
+		} finally {
+			COMMIT.record(start, succeeded);
+			if (succeeded) {
+				endTransaction(true);
+			}
+		}
+	}
+
+	@Override
+	protected void rollbackTransaction(Connection conn) throws SQLException {
+		long start = System.nanoTime();
+		boolean succeeded = false;
+		try {
+			super.rollbackTransaction(conn);
+			succeeded = true;
+		} finally {
+			ROLLBACK.record(start, succeeded);
+			endTransaction(false);
+		}
+	}
+
+	/**
+	 * Records the transaction in progress on this thread, once, as committed
+	 * or rolled back.
+	 */
+
+	private static void endTransaction(boolean committed) {
+		long[] started = TRANSACTION_START.get();
+		if (started[0] != 0) {
+			TRANSACTION.record(started[0], committed);
+			started[0] = 0;
+		}
+	}
+
+}
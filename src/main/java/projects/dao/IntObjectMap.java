@@ -0,0 +1,111 @@
+package projects.dao;
+
+/**
+ * A minimal open-addressing hash map from primitive <code>int</code> keys to
+ * objects. It exists so that rows can be matched to their parent by ID
+ * without boxing every key into an <code>Integer</code> or allocating a
+ * <code>HashMap</code> entry per row.
+ *
+ * Keys are stored in an <code>int[]</code> and probed linearly. The table is
+ * sized to a power of two and doubled when it is more than half full. It is
+ * not thread-safe.
+ *
+ * @author ProjectGrantwood
+ *
+ * @param <V> The type of the mapped values.
+ */
+
+class IntObjectMap<V> {
+
+	private int[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+
+	/**
+	 * @param expectedSize The number of entries expected, used to size the
+	 * 					table so that it never needs to grow.
+	 */
+
+	IntObjectMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * @param key The key to look up.
+	 * @return the value mapped to the key, or <code>null</code>.
+	 */
+
+	@SuppressWarnings("unchecked")
+	V get(int key) {
+		for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+			if (keys[slot] == key) {
+				return (V) values[slot];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Maps a key to a value, replacing any existing mapping.
+	 *
+	 * @param key The key.
+	 * @param value The value, which must not be <code>null</code>.
+	 */
+
+	void put(int key, V value) {
+		int slot = hash(key) & mask;
+		while (values[slot] != null) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size * 2 > keys.length) {
+			grow();
+		}
+	}
+
+	/**
+	 * @return the number of mappings.
+	 */
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Doubles the table and re-inserts every mapping.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private void grow() {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		mask = keys.length - 1;
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] != null) {
+				put(oldKeys[i], (V) oldValues[i]);
+			}
+		}
+	}
+
+	/**
+	 * Spreads sequential IDs across the table.
+	 */
+
+	private static int hash(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
@@ -0,0 +1,475 @@
+package projects.dao;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import provided.util.DaoBase;
+
+/**
+ * A pooled physical connection as seen by a single borrower. Every call is
+ * delegated to the physical connection, except that:
+ * <ul>
+ * <li><code>prepareStatement(String)</code> and
+ * <code>prepareStatement(String, int autoGeneratedKeys)</code> go through the
+ * connection's <code>StatementCache</code>, if it has one;</li>
+ * <li>statements the borrower leaves open are closed when the connection is
+ * closed;</li>
+ * <li><code>close()</code> hands the physical connection back to the pool,
+ * exactly once, and any other call made after that fails as it would on a
+ * closed connection.</li>
+ * </ul>
+ *
+ * Statements are the driver's own, so that binding parameters and reading
+ * results cost no more than on an unpooled connection. Their
+ * <code>getConnection</code> therefore returns the physical connection,
+ * which borrowers must not close.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+class LeasedConnection implements Connection {
+
+	/**
+	 * The number of statements a lease tracks before it forgets those
+	 * already closed.
+	 */
+	private static final int TRACKED_STATEMENTS = 32;
+
+	private final Connection physical;
+	private final StatementCache statementCache;
+	private final Runnable onReturn;
+	private final AtomicBoolean returned = new AtomicBoolean();
+	/**
+	 * Statements created through this lease that may still be open.
+	 */
+	private final List<Statement> statements = new ArrayList<>();
+
+	/**
+	 * @param physical The physical connection calls are delegated to.
+	 * @param statementCache The physical connection's statement cache, or
+	 * 					<code>null</code> if it has none.
+	 * @param onReturn Hands the physical connection back to the pool.
+	 */
+
+	LeasedConnection(Connection physical, StatementCache statementCache, Runnable onReturn) {
+		this.physical = physical;
+		this.statementCache = statementCache;
+		this.onReturn = onReturn;
+	}
+
+	@Override
+	public void close() {
+		if (returned.compareAndSet(false, true)) {
+			closeStatements();
+			DaoBase.clearConnectionWait();
+			onReturn.run();
+		}
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return returned.get() || physical.isClosed();
+	}
+
+	/**
+	 * Aborts the physical connection, which the pool then discards, and
+	 * returns the lease.
+	 */
+
+	@Override
+	public void abort(Executor executor) throws SQLException {
+		checkOpen();
+		try {
+			physical.abort(executor);
+		} finally {
+			close();
+		}
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return prepareStatement(sql, Statement.NO_GENERATED_KEYS);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		checkOpen();
+		return track(Objects.isNull(statementCache)
+				? physical.prepareStatement(sql, autoGeneratedKeys)
+				: statementCache.prepare(sql, autoGeneratedKeys));
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+			throws SQLException {
+		checkOpen();
+		return track(physical.prepareStatement(sql, resultSetType, resultSetConcurrency));
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		checkOpen();
+		return track(physical.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+		checkOpen();
+		return track(physical.prepareStatement(sql, columnIndexes));
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+		checkOpen();
+		return track(physical.prepareStatement(sql, columnNames));
+	}
+
+	@Override
+	public Statement createStatement() throws SQLException {
+		checkOpen();
+		return track(physical.createStatement());
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+		checkOpen();
+		return track(physical.createStatement(resultSetType, resultSetConcurrency));
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+			throws SQLException {
+		checkOpen();
+		return track(physical.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql) throws SQLException {
+		checkOpen();
+		return track(physical.prepareCall(sql));
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency)
+			throws SQLException {
+		checkOpen();
+		return track(physical.prepareCall(sql, resultSetType, resultSetConcurrency));
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency,
+			int resultSetHoldability) throws SQLException {
+		checkOpen();
+		return track(physical.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+	}
+
+	@Override
+	public String nativeSQL(String sql) throws SQLException {
+		checkOpen();
+		return physical.nativeSQL(sql);
+	}
+
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		checkOpen();
+		physical.setAutoCommit(autoCommit);
+	}
+
+	@Override
+	public boolean getAutoCommit() throws SQLException {
+		checkOpen();
+		return physical.getAutoCommit();
+	}
+
+	@Override
+	public void commit() throws SQLException {
+		checkOpen();
+		physical.commit();
+	}
+
+	@Override
+	public void rollback() throws SQLException {
+		checkOpen();
+		physical.rollback();
+	}
+
+	@Override
+	public void rollback(Savepoint savepoint) throws SQLException {
+		checkOpen();
+		physical.rollback(savepoint);
+	}
+
+	@Override
+	public Savepoint setSavepoint() throws SQLException {
+		checkOpen();
+		return physical.setSavepoint();
+	}
+
+	@Override
+	public Savepoint setSavepoint(String name) throws SQLException {
+		checkOpen();
+		return physical.setSavepoint(name);
+	}
+
+	@Override
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		checkOpen();
+		physical.releaseSavepoint(savepoint);
+	}
+
+	@Override
+	public DatabaseMetaData getMetaData() throws SQLException {
+		checkOpen();
+		return physical.getMetaData();
+	}
+
+	@Override
+	public void setReadOnly(boolean readOnly) throws SQLException {
+		checkOpen();
+		physical.setReadOnly(readOnly);
+	}
+
+	@Override
+	public boolean isReadOnly() throws SQLException {
+		checkOpen();
+		return physical.isReadOnly();
+	}
+
+	@Override
+	public void setCatalog(String catalog) throws SQLException {
+		checkOpen();
+		physical.setCatalog(catalog);
+	}
+
+	@Override
+	public String getCatalog() throws SQLException {
+		checkOpen();
+		return physical.getCatalog();
+	}
+
+	@Override
+	public void setSchema(String schema) throws SQLException {
+		checkOpen();
+		physical.setSchema(schema);
+	}
+
+	@Override
+	public String getSchema() throws SQLException {
+		checkOpen();
+		return physical.getSchema();
+	}
+
+	@Override
+	public void setTransactionIsolation(int level) throws SQLException {
+		checkOpen();
+		physical.setTransactionIsolation(level);
+	}
+
+	@Override
+	public int getTransactionIsolation() throws SQLException {
+		checkOpen();
+		return physical.getTransactionIsolation();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		checkOpen();
+		return physical.getWarnings();
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		checkOpen();
+		physical.clearWarnings();
+	}
+
+	@Override
+	public Map<String, Class<?>> getTypeMap() throws SQLException {
+		checkOpen();
+		return physical.getTypeMap();
+	}
+
+	@Override
+	public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+		checkOpen();
+		physical.setTypeMap(map);
+	}
+
+	@Override
+	public void setHoldability(int holdability) throws SQLException {
+		checkOpen();
+		physical.setHoldability(holdability);
+	}
+
+	@Override
+	public int getHoldability() throws SQLException {
+		checkOpen();
+		return physical.getHoldability();
+	}
+
+	@Override
+	public Clob createClob() throws SQLException {
+		checkOpen();
+		return physical.createClob();
+	}
+
+	@Override
+	public Blob createBlob() throws SQLException {
+		checkOpen();
+		return physical.createBlob();
+	}
+
+	@Override
+	public NClob createNClob() throws SQLException {
+		checkOpen();
+		return physical.createNClob();
+	}
+
+	@Override
+	public SQLXML createSQLXML() throws SQLException {
+		checkOpen();
+		return physical.createSQLXML();
+	}
+
+	@Override
+	public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+		checkOpen();
+		return physical.createArrayOf(typeName, elements);
+	}
+
+	@Override
+	public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+		checkOpen();
+		return physical.createStruct(typeName, attributes);
+	}
+
+	@Override
+	public boolean isValid(int timeout) throws SQLException {
+		return !returned.get() && physical.isValid(timeout);
+	}
+
+	@Override
+	public void setClientInfo(String name, String value) throws SQLClientInfoException {
+		if (returned.get()) {
+			throw new SQLClientInfoException("Connection has been returned to the pool.", null);
+		}
+		physical.setClientInfo(name, value);
+	}
+
+	@Override
+	public void setClientInfo(Properties properties) throws SQLClientInfoException {
+		if (returned.get()) {
+			throw new SQLClientInfoException("Connection has been returned to the pool.", null);
+		}
+		physical.setClientInfo(properties);
+	}
+
+	@Override
+	public String getClientInfo(String name) throws SQLException {
+		checkOpen();
+		return physical.getClientInfo(name);
+	}
+
+	@Override
+	public Properties getClientInfo() throws SQLException {
+		checkOpen();
+		return physical.getClientInfo();
+	}
+
+	@Override
+	public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+		checkOpen();
+		physical.setNetworkTimeout(executor, milliseconds);
+	}
+
+	@Override
+	public int getNetworkTimeout() throws SQLException {
+		checkOpen();
+		return physical.getNetworkTimeout();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		checkOpen();
+		return iface.isInstance(this) ? iface.cast(this) : physical.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		checkOpen();
+		return iface.isInstance(this) || physical.isWrapperFor(iface);
+	}
+
+	@Override
+	public String toString() {
+		return "Pooled[" + physical + "]";
+	}
+
+	private void checkOpen() throws SQLException {
+		if (returned.get()) {
+			throw new SQLException("Connection has been returned to the pool.");
+		}
+	}
+
+	/**
+	 * Remembers a statement so that it can be closed when the connection is
+	 * returned. Statements already closed are forgotten once the list grows,
+	 * so that a long lease does not hold on to every statement it ever made.
+	 */
+
+	private <S extends Statement> S track(S statement) {
+		if (statements.size() >= TRACKED_STATEMENTS) {
+			statements.removeIf(LeasedConnection::isClosed);
+		}
+		statements.add(statement);
+		return statement;
+	}
+
+	/**
+	 * Closes every statement the borrower left open. A cached statement goes
+	 * back to the driver's statement cache rather than being closed on the
+	 * server.
+	 */
+
+	private void closeStatements() {
+		for (Statement statement : statements) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				// The statement is being discarded; nothing more to do.
+			}
+		}
+		statements.clear();
+	}
+
+	private static boolean isClosed(Statement statement) {
+		try {
+			return statement.isClosed();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+}
@@ -1,21 +1,43 @@
 package projects.dao;
 
-import java.math.BigDecimal;
-
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import projects.entity.Category;
 import projects.entity.Material;
+import projects.entity.MaterialParameterBinder;
+import projects.entity.MaterialRowMapper;
 import projects.entity.Project;
+import projects.entity.ProjectParameterBinder;
+import projects.entity.ProjectRowMapper;
 import projects.entity.Step;
+import projects.entity.StepParameterBinder;
+import projects.entity.StepRowMapper;
 import projects.exception.DbException;
 import provided.util.DaoBase;
 
@@ -51,10 +73,203 @@ public class ProjectDao extends DaoBase {
 	 * Constant representing the name of the step table.
 	 */
 	private static final String STEP_TABLE = "step";
+	/**
+	 * Constant representing the name of the stored procedure that returns a
+	 * project and its child rows.
+	 */
+	private static final String PROJECT_GRAPH_PROCEDURE = "fetch_project_graph";
+	/**
+	 * The MySQL error code for a call to a stored procedure that does not
+	 * exist.
+	 */
+	private static final int ER_SP_DOES_NOT_EXIST = 1305;
+	
+	/*
+	 * Statements with fixed SQL are registered once, so that every call sends
+	 * identical text and pooled connections reuse their prepared statement.
+	 */
+	
+	// @formatter:off
+	private static final NamedStatement INSERT_PROJECT = registerStatement("project.insert", ""
+			+ "INSERT INTO " + ProjectDao.PROJECT_TABLE + " "
+			+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?, ?)");
+	private static final NamedStatement INSERT_MATERIAL = registerStatement("material.insert", ""
+			+ "INSERT INTO " + ProjectDao.MATERIAL_TABLE + " "
+			+ "(project_id, material_name, num_required, cost) "
+			+ "VALUES "
+			+ "(?, ?, ?, ?)");
+	private static final NamedStatement INSERT_STEP = registerStatement("step.insert", ""
+			+ "INSERT INTO " + ProjectDao.STEP_TABLE + " "
+			+ "(project_id, step_text, step_order) "
+			+ "VALUES "
+			+ "(?, ?, ?)");
+	private static final NamedStatement INSERT_PROJECT_CATEGORY = registerStatement("projectCategory.insert", ""
+			+ "INSERT INTO " + ProjectDao.PROJECT_CATEGORY_TABLE + " "
+			+ "(project_id, category_id) "
+			+ "VALUES "
+			+ "(?, ?)");
+	private static final NamedStatement LOCK_PROJECT_STEP_ORDER = registerStatement("project.lockForSteps", ""
+			+ "SELECT p.project_id, COALESCE(MAX(s.step_order), 0) AS max_step_order "
+			+ "FROM " + ProjectDao.PROJECT_TABLE + " p "
+			+ "LEFT JOIN " + ProjectDao.STEP_TABLE + " s ON s.project_id = p.project_id "
+			+ "WHERE p.project_id = ? "
+			+ "GROUP BY p.project_id "
+			+ "FOR UPDATE");
+	private static final NamedStatement LOCK_PROJECT_SHARED = registerStatement("project.lockShared", ""
+			+ "SELECT project_id FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id = ? FOR SHARE");
+	private static final NamedStatement SELECT_PROJECT_ID = registerStatement("project.selectId", ""
+			+ "SELECT project_id FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id = ?");
+	private static final NamedStatement EXPORT_PROJECTS = registerStatement("project.export", ""
+			+ "SELECT * FROM " + ProjectDao.PROJECT_TABLE
+			+ " ORDER BY project_id");
+	private static final NamedStatement EXPORT_MATERIALS = registerStatement("material.export", ""
+			+ "SELECT * FROM " + ProjectDao.MATERIAL_TABLE
+			+ " ORDER BY project_id, material_id");
+	private static final NamedStatement EXPORT_STEPS = registerStatement("step.export", ""
+			+ "SELECT * FROM " + ProjectDao.STEP_TABLE
+			+ " ORDER BY project_id, step_order, step_id");
+	private static final NamedStatement EXPORT_PROJECT_CATEGORIES = registerStatement("projectCategory.export", ""
+			+ "SELECT project_id, category_id FROM " + ProjectDao.PROJECT_CATEGORY_TABLE
+			+ " ORDER BY project_id, category_id");
+	private static final NamedStatement SELECT_ALL_PROJECTS = registerStatement("project.selectAll", ""
+			+ "SELECT project_id, project_name, estimated_hours, actual_hours, difficulty "
+			+ "FROM " + ProjectDao.PROJECT_TABLE
+			+ " ORDER BY project_id");
+	private static final NamedStatement SELECT_PROJECTS_AFTER = registerStatement("project.pageAfter", ""
+			+ "SELECT project_id, project_name, estimated_hours, actual_hours, difficulty "
+			+ "FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id > ? ORDER BY project_id LIMIT ?");
+	private static final NamedStatement SELECT_PROJECTS_BEFORE = registerStatement("project.pageBefore", ""
+			+ "SELECT project_id, project_name, estimated_hours, actual_hours, difficulty "
+			+ "FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id < ? ORDER BY project_id DESC LIMIT ?");
+	private static final NamedStatement SELECT_PROJECT_BY_ID = registerStatement("project.selectById", ""
+			+ "SELECT * FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id = ?");
+	private static final NamedStatement SELECT_MATERIALS_BY_PROJECT = registerStatement("material.selectByProject", ""
+			+ "SELECT * FROM " + ProjectDao.MATERIAL_TABLE
+			+ " WHERE project_id = ?");
+	private static final NamedStatement SELECT_STEPS_BY_PROJECT = registerStatement("step.selectByProject", ""
+			+ "SELECT * FROM " + ProjectDao.STEP_TABLE
+			+ " WHERE project_id = ? ORDER BY step_order");
+	private static final NamedStatement SELECT_CATEGORY_IDS_BY_PROJECT = registerStatement("projectCategory.selectByProject", ""
+			+ "SELECT category_id FROM " + ProjectDao.PROJECT_CATEGORY_TABLE
+			+ " WHERE project_id = ?");
+	private static final NamedStatement SELECT_PROJECT_GRAPH = registerStatement("project.selectGraph", ""
+			+ "CALL " + ProjectDao.PROJECT_GRAPH_PROCEDURE + "(?)");
+	private static final NamedStatement UPDATE_PROJECT = registerStatement("project.update", ""
+			+ "UPDATE " + ProjectDao.PROJECT_TABLE + " SET "
+			+ "project_name = ?, "
+			+ "estimated_hours = ?, "
+			+ "actual_hours = ?, "
+			+ "difficulty = ?, "
+			+ "notes = ? "
+			+ "WHERE project_id = ?");
+	private static final NamedStatement DELETE_PROJECT = registerStatement("project.delete", ""
+			+ "DELETE FROM " + ProjectDao.PROJECT_TABLE
+			+ " WHERE project_id = ?");
+	// @formatter:on
+	
+	/**
+	 * The <code>UPDATE</code> for each set of changed project columns,
+	 * indexed by the bits of the columns' ordinals. Index 0, with no
+	 * columns, is never used; the last index, with every column, holds
+	 * <code>UPDATE_PROJECT</code>.
+	 */
+	private static final NamedStatement[] UPDATE_PROJECT_COLUMNS = registerColumnUpdates();
+	
+	/**
+	 * The in-memory copy of the category table, shared by every
+	 * <code>ProjectDao</code>. Project categories are resolved through it, so
+	 * only category IDs are read from the project_category table. It is
+	 * reloaded every <code>projects.categoryRefreshSeconds</code> seconds.
+	 */
+	private static final CategoryRegistry CATEGORY_REGISTRY =
+			new CategoryRegistry(Long.getLong("projects.categoryRefreshSeconds", 300L));
+	
+	/**
+	 * Lazily creates the executor that runs the queries of
+	 * <code>fetchProjectById</code> when parallel child loading is enabled.
+	 * It has one thread per pooled connection, since each query holds a
+	 * connection for as long as it runs.
+	 */
+	private static class ChildLoaderHolder {
+		
+		private static final ExecutorService CHILD_LOADER = Executors.newFixedThreadPool(
+				DbConnection.getMaxPoolSize(), runnable -> {
+					Thread thread = new Thread(runnable, "projects-child-loader");
+					thread.setDaemon(true);
+					return thread;
+				});
+		
+	}
+	
+	/**
+	 * The number of rows sent to the server in each batch by
+	 * <code>insertProjects</code>. Can be overridden with the
+	 * <code>projects.insertBatchSize</code> system property.
+	 */
+	private int insertBatchSize = Integer.getInteger("projects.insertBatchSize", 500);
+	
+	/**
+	 * The largest number of IDs in each <code>IN</code> list sent by
+	 * <code>fetchProjectsByIds</code>. Can be overridden with the
+	 * <code>projects.inListChunkSize</code> system property.
+	 */
+	private int inListChunkSize = Integer.getInteger("projects.inListChunkSize", 500);
+	
+	/**
+	 * Whether <code>fetchProjectById</code> loads the whole project graph in
+	 * one round trip, through the <code>fetch_project_graph</code> stored
+	 * procedure. Can be switched off with the
+	 * <code>projects.aggregateLoad</code> system property.
+	 */
+	private boolean aggregateLoading = Boolean.parseBoolean(System.getProperty("projects.aggregateLoad", "true"));
+	
+	/**
+	 * Set once a call to the <code>fetch_project_graph</code> procedure has
+	 * found it missing from the schema, after which aggregate loading falls
+	 * back to the query-per-collection load.
+	 */
+	private static volatile boolean graphProcedureMissing;
+	
+	/**
+	 * Whether <code>fetchProjectById</code> reads the project row and its
+	 * child collections concurrently, on separate pooled connections. Off
+	 * unless the <code>projects.parallelChildLoad</code> system property is
+	 * <code>true</code>.
+	 */
+	private boolean parallelChildLoading = Boolean.getBoolean("projects.parallelChildLoad");
+	
+	/**
+	 * The number of queries, and so of pooled connections, a parallel
+	 * <code>fetchProjectById</code> runs at once.
+	 */
+	private static final int PARALLEL_FETCH_QUERIES = 4;
+	
+	/**
+	 * Sets the number of rows sent to the server in each batch by
+	 * <code>insertProjects</code>.
+	 * 
+	 * @param insertBatchSize The batch size, at least 1.
+	 */
+	
+	public void setInsertBatchSize(int insertBatchSize) {
+		if (insertBatchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1, was " + insertBatchSize);
+		}
+		this.insertBatchSize = insertBatchSize;
+	}
 	
 	/**
 	 * Adds a new row to the projects table based on the values contained in the
-	 * <code>Project</code> instance passed as a parameter.
+	 * <code>Project</code> instance passed as a parameter. The generated
+	 * project ID is read from the statement's generated keys and set on the
+	 * instance.
 	 * 
 	 * @param project A <code>Project</code> instance.
 	 * @return the <code>Project</code> instance.
@@ -62,26 +277,11 @@ public class ProjectDao extends DaoBase {
 	 */
 	public Project insertProject(Project project) {
 		
-		// @formatter:off
-		String sql = ""
-				+ "INSERT INTO " + ProjectDao.PROJECT_TABLE + " "
-				+ "(project_name, estimated_hours, actual_hours, difficulty, notes) "
-				+ "VALUES "
-				+ "(?, ?, ?, ?, ?)";
-		// @formatter:on
-		
 		try (Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
-			try (PreparedStatement statement = conn.prepareStatement(sql)) {
-				setParameter(statement, 1, project.getProjectName(), String.class);
-				setParameter(statement, 2, project.getEstimatedHours(), BigDecimal.class);
-				setParameter(statement, 3, project.getActualHours(), BigDecimal.class);
-				setParameter(statement, 4, project.getDifficulty(), Integer.class);
-				setParameter(statement, 5, project.getNotes(), String.class);
-				statement.executeUpdate();
-				Integer projectId = getLastInsertId(conn, ProjectDao.PROJECT_TABLE);
+			try {
+				insertProject(conn, project);
 				commitTransaction(conn);
-				project.setProjectId(projectId);
 				return project;
 			}
 			catch (Exception e) {
@@ -93,32 +293,59 @@ public class ProjectDao extends DaoBase {
 			throw new DbException(e);
 		}
 	}
+	
+	/**
+	 * Inserts a project row on the given connection, as part of the caller's
+	 * transaction, and sets the generated ID on the instance.
+	 * 
+	 * @param conn A <code>Connection</code> with a transaction in progress.
+	 * @param project A <code>Project</code> instance.
+	 * @return the <code>Project</code> instance.
+	 * @throws SQLException if the row cannot be inserted.
+	 */
+	
+	private Project insertProject(Connection conn, Project project) throws SQLException {
+		
+		try (PreparedStatement statement = prepareStatement(conn, INSERT_PROJECT, Statement.RETURN_GENERATED_KEYS)) {
+			ProjectParameterBinder.INSTANCE.bind(statement, 1, project);
+			statement.executeUpdate();
+			assignGeneratedIds(statement, List.of(project));
+			return project;
+		}
+	}
 
 	/**
-	 * Fetches all rows in the projects table.
+	 * Adds a row to the projects table for each <code>Project</code> in the
+	 * list, in a single transaction. Rows are sent to the server in batches of
+	 * <code>insertBatchSize</code>, which the driver rewrites into multi-row
+	 * <code>INSERT</code> statements. The generated project IDs are set on the
+	 * instances in list order.
 	 * 
-	 * @return a <code>List</code> of <code>Project</code>.
+	 * @param projects The <code>Project</code> instances to insert.
+	 * @return the same list of <code>Project</code> instances.
 	 * @throws <code>DbException</code>
 	 */
 	
-	public List<Project> fetchAllObjects() {
+	public List<Project> insertProjects(List<Project> projects) {
 		
-		// @formatter:off
-		String sql = ""
-				+ "SELECT project_id, project_name, estimated_hours, actual_hours, difficulty, notes "
-				+ "FROM " + ProjectDao.PROJECT_TABLE;
-		// @formatter: on
+		if (projects.isEmpty()) {
+			return projects;
+		}
 		
 		try (Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
-			try (PreparedStatement statement = conn.prepareStatement(sql)) {
-				try (ResultSet results = statement.executeQuery()) {
-					List<Project> projects = new LinkedList<>();
-					while (results.next()) {
-						projects.add(extract(results, Project.class));
+			try (PreparedStatement statement = prepareStatement(conn, INSERT_PROJECT, Statement.RETURN_GENERATED_KEYS)) {
+				for (int from = 0; from < projects.size(); from += insertBatchSize) {
+					List<Project> batch = projects.subList(from, Math.min(from + insertBatchSize, projects.size()));
+					for (Project project : batch) {
+						ProjectParameterBinder.INSTANCE.bind(statement, 1, project);
+						statement.addBatch();
 					}
-					return projects;
+					statement.executeBatch();
+					assignGeneratedIds(statement, batch);
 				}
+				commitTransaction(conn);
+				return projects;
 			}
 			catch (Exception e) {
 				rollbackTransaction(conn);
@@ -129,60 +356,67 @@ public class ProjectDao extends DaoBase {
 			throw new DbException(e);
 		}
 	}
-
+	
 	/**
-	 * Fetches a specific row from the projects table.
+	 * Appends steps to an existing project, in a single transaction. One
+	 * locking read takes the project row, and the rows of its steps, and
+	 * returns the highest <code>step_order</code> in use; the new steps are
+	 * numbered on from it in list order, replacing any order they were given.
+	 * Because every append locks the project row first, concurrent appends to
+	 * the same project are numbered one after the other, and a gap left by a
+	 * deleted step is never reused. The steps are then inserted with one
+	 * batched statement, in batches of <code>insertBatchSize</code>, and
+	 * their generated IDs are set on the instances.
 	 * 
-	 * @param projectId The numerical ID associated with the project to be
-	 * 					fetched.
-	 * @return an <code>Optional</code> object representing the row.
-	 * @throws <code>DbException</code>
+	 * @param projectId The ID of the project to append to.
+	 * @param steps The <code>Step</code> instances to insert.
+	 * @return the same list of <code>Step</code> instances.
+	 * @throws <code>DbException</code> if the project does not exist.
 	 */
 	
-	public Optional<Project> fetchProjectById(Integer projectId) {
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
 		
-		// @formatter:off
-		String sql = ""
-				+ "SELECT * FROM " + ProjectDao.PROJECT_TABLE
-				+ " WHERE project_id = ?";
-		// @formatter:on
+		if (steps.isEmpty()) {
+			return steps;
+		}
 		
-		try(Connection conn = DbConnection.getConnection()) {
-			
+		try (Connection conn = DbConnection.getConnection()) {
 			startTransaction(conn);
-			
 			try {
-				
-				Project project = null;
-				
-				try (PreparedStatement statement = conn.prepareStatement(sql)) {
-					
+				int stepOrder;
+				try (PreparedStatement statement = prepareStatement(conn, LOCK_PROJECT_STEP_ORDER)) {
 					setParameter(statement, 1, projectId, Integer.class);
-					
-					try(ResultSet rs = statement.executeQuery()) {
-						
-						if (rs.next()) {
-							project = extract(rs, Project.class);
+					try (ResultSet rs = statement.executeQuery()) {
+						if (!rs.next()) {
+							throw new DbException("Project with ID=" + projectId + " does not exist.");
 						}
-						
+						stepOrder = rs.getInt("max_step_order");
 					}
 				}
 				
-				if (Objects.nonNull(project)) {
-					
-					project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
-					project.getSteps().addAll(fetchStepsForProject(conn, projectId));
-					project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+				for (Step step : steps) {
+					step.setProjectId(projectId);
+					step.setStepOrder(++stepOrder);
+				}
 				
+				try (PreparedStatement statement = prepareStatement(conn, INSERT_STEP, Statement.RETURN_GENERATED_KEYS)) {
+					for (int from = 0; from < steps.size(); from += insertBatchSize) {
+						List<Step> batch = steps.subList(from, Math.min(from + insertBatchSize, steps.size()));
+						for (Step step : batch) {
+							StepParameterBinder.INSTANCE.bind(statement, 1, step);
+							statement.addBatch();
+						}
+						statement.executeBatch();
+						assignGeneratedIds(statement, batch, Step::setStepId);
+					}
 				}
 				
 				commitTransaction(conn);
-				
-				return Optional.ofNullable(project);
+				return steps;
 			}
-			catch(Exception e) {
+			catch (Exception e) {
 				rollbackTransaction(conn);
-				throw new DbException(e);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
 			}
 		}
 		catch (SQLException e) {
@@ -191,154 +425,1338 @@ public class ProjectDao extends DaoBase {
 	}
 	
 	/**
-	 * Obtains all rows of the category table corresponding to the provided 
-	 * projectId.
+	 * Adds materials to an existing project, in a single transaction. The
+	 * project row is read with a shared lock, so that it cannot be deleted
+	 * while the materials are inserted, and the materials are then inserted
+	 * with one batched statement, in batches of <code>insertBatchSize</code>.
+	 * Their generated IDs are set on the instances.
 	 * 
-	 * @param conn A <code>Connection</code> object.
-	 * @param projectId The numerical ID of the project for which the rows from
-	 * 					the category table are being fetched.
-	 * @return A <code>List</code> of <code>Category</code>.
+	 * @param projectId The ID of the project to add to.
+	 * @param materials The <code>Material</code> instances to insert.
+	 * @return the same list of <code>Material</code> instances.
+	 * @throws <code>DbException</code> if the project does not exist.
 	 */
-
-	private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId) throws SQLException {
+	
+	public List<Material> addMaterials(Integer projectId, List<Material> materials) {
 		
-		// @formatter:off
-		String sql = ""
-				+ "SELECT c.* FROM " + ProjectDao.CATEGORY_TABLE + " c "
-				+ "JOIN " + ProjectDao.PROJECT_CATEGORY_TABLE + " pc USING (category_id) "
-				+ "WHERE project_id = ?";
-		// @formatter:on
+		if (materials.isEmpty()) {
+			return materials;
+		}
 		
-		try (PreparedStatement statement = conn.prepareStatement(sql)){
-			
-			setParameter(statement, 1, projectId, Integer.class);
-			
-			try(ResultSet rs = statement.executeQuery()) {
-				
-				List<Category> categories = new LinkedList<>();
-				
-				while(rs.next()) {
-					categories.add(extract(rs, Category.class));
+		try (Connection conn = DbConnection.getConnection()) {
+			startTransaction(conn);
+			try {
+				try (PreparedStatement statement = prepareStatement(conn, LOCK_PROJECT_SHARED)) {
+					setParameter(statement, 1, projectId, Integer.class);
+					try (ResultSet rs = statement.executeQuery()) {
+						if (!rs.next()) {
+							throw new DbException("Project with ID=" + projectId + " does not exist.");
+						}
+					}
 				}
 				
-				return categories;
+				try (PreparedStatement statement = prepareStatement(conn, INSERT_MATERIAL, Statement.RETURN_GENERATED_KEYS)) {
+					for (int from = 0; from < materials.size(); from += insertBatchSize) {
+						List<Material> batch = materials.subList(from, Math.min(from + insertBatchSize, materials.size()));
+						for (Material material : batch) {
+							material.setProjectId(projectId);
+							MaterialParameterBinder.INSTANCE.bind(statement, 1, material);
+							statement.addBatch();
+						}
+						statement.executeBatch();
+						assignGeneratedIds(statement, batch, Material::setMaterialId);
+					}
+				}
 				
+				commitTransaction(conn);
+				return materials;
+			}
+			catch (Exception e) {
+				rollbackTransaction(conn);
+				throw e instanceof DbException ? (DbException) e : new DbException(e);
 			}
 		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
 	}
 	
 	/**
-	 * Obtains all rows of the step table corresponding to the provided 
-	 * projectId.
+	 * Inserts projects together with their materials, steps and category
+	 * links, on the given connection and as part of the caller's transaction.
+	 * Each table is written with one batched statement, which the driver
+	 * rewrites into multi-row <code>INSERT</code>s of up to
+	 * <code>insertBatchSize</code> rows. The generated project IDs are set on
+	 * the projects and their children. Categories given only by name are
+	 * resolved through the category registry.
 	 * 
-	 * @param conn A <code>Connection</code> object.
-	 * @param projectId The numerical ID of the project for which the rows from
-	 * 					the step table are being fetched.
-	 * @return A <code>List</code> of <code>Step</code>.
+	 * @param conn A <code>Connection</code> with a transaction in progress.
+	 * @param projects The projects to insert.
+	 * @return the number of rows inserted, across all four tables.
+	 * @throws SQLException if a row cannot be inserted, or a category does not
+	 * exist.
 	 */
-
-
-	private List<Step> fetchStepsForProject(Connection conn, Integer projectId) throws SQLException {
+	
+	long insertProjectGraphs(Connection conn, List<Project> projects) throws SQLException {
 		
-		// @formatter:off
-		String sql = ""
-				+ "SELECT * FROM " + ProjectDao.STEP_TABLE
-				+ " WHERE project_id = ?";
-		// @formatter:on
+		if (projects.isEmpty()) {
+			return 0;
+		}
 		
-		try (PreparedStatement statement = conn.prepareStatement(sql)){
-			
-			setParameter(statement, 1, projectId, Integer.class);
-			
-			try(ResultSet rs = statement.executeQuery()) {
-				
-				List<Step> steps = new LinkedList<>();
-				
-				while(rs.next()) {
-					steps.add(extract(rs, Step.class));
+		try (PreparedStatement statement = prepareStatement(conn, INSERT_PROJECT, Statement.RETURN_GENERATED_KEYS)) {
+			for (Project project : projects) {
+				ProjectParameterBinder.INSTANCE.bind(statement, 1, project);
+				statement.addBatch();
+			}
+			statement.executeBatch();
+			assignGeneratedIds(statement, projects);
+		}
+		
+		long rows = projects.size();
+		
+		try (PreparedStatement statement = prepareStatement(conn, INSERT_MATERIAL)) {
+			int pending = 0;
+			for (Project project : projects) {
+				for (Material material : project.getMaterials()) {
+					material.setProjectId(project.getProjectId());
+					MaterialParameterBinder.INSTANCE.bind(statement, 1, material);
+					statement.addBatch();
+					if (++pending == insertBatchSize) {
+						statement.executeBatch();
+						rows += pending;
+						pending = 0;
+					}
 				}
-				
-				return steps;
-				
+			}
+			if (pending > 0) {
+				statement.executeBatch();
+				rows += pending;
+			}
+		}
+		
+		try (PreparedStatement statement = prepareStatement(conn, INSERT_STEP)) {
+			int pending = 0;
+			for (Project project : projects) {
+				for (Step step : project.getSteps()) {
+					step.setProjectId(project.getProjectId());
+					StepParameterBinder.INSTANCE.bind(statement, 1, step);
+					statement.addBatch();
+					if (++pending == insertBatchSize) {
+						statement.executeBatch();
+						rows += pending;
+						pending = 0;
+					}
+				}
+			}
+			if (pending > 0) {
+				statement.executeBatch();
+				rows += pending;
 			}
 		}
+		
+		try (PreparedStatement statement = prepareStatement(conn, INSERT_PROJECT_CATEGORY)) {
+			int pending = 0;
+			for (Project project : projects) {
+				for (Category category : project.getCategories()) {
+					statement.setInt(1, project.getProjectId());
+					statement.setInt(2, resolveCategoryId(conn, category));
+					statement.addBatch();
+					if (++pending == insertBatchSize) {
+						statement.executeBatch();
+						rows += pending;
+						pending = 0;
+					}
+				}
+			}
+			if (pending > 0) {
+				statement.executeBatch();
+				rows += pending;
+			}
+		}
+		
+		return rows;
 	}
 	
 	/**
-	 * Obtains all rows of the material table corresponding to the provided 
-	 * projectId.
+	 * @return the ID of a category given by ID or only by name.
+	 * @throws SQLException if the category is named but does not exist.
+	 */
+	
+	private int resolveCategoryId(Connection conn, Category category) throws SQLException {
+		if (Objects.nonNull(category.getCategoryId())) {
+			return category.getCategoryId();
+		}
+		Category existing = CATEGORY_REGISTRY.getByName(conn, category.getCategoryName());
+		if (Objects.isNull(existing)) {
+			throw new SQLException("There is no category named " + category.getCategoryName() + ".");
+		}
+		category.setCategoryId(existing.getCategoryId());
+		return existing.getCategoryId();
+	}
+	
+	/**
+	 * Starts a transaction for <code>BulkImporter</code>, which drives its
+	 * own transactions across several calls to
+	 * <code>insertProjectGraphs</code>.
+	 */
+	
+	void beginImport(Connection conn) throws SQLException {
+		startTransaction(conn);
+	}
+	
+	/**
+	 * Commits a transaction started with <code>beginImport</code>.
+	 */
+	
+	void commitImport(Connection conn) throws SQLException {
+		commitTransaction(conn);
+	}
+	
+	/**
+	 * Rolls back a transaction started with <code>beginImport</code>.
+	 */
+	
+	void rollbackImport(Connection conn) throws SQLException {
+		rollbackTransaction(conn);
+	}
+	
+	/**
+	 * Reads the keys generated by the last execution of the statement and
+	 * sets them, in order, as the IDs of the given projects.
 	 * 
-	 * @param conn A <code>Connection</code> object.
-	 * @param projectId The numerical ID of the project for which the rows from
-	 * 					the material table are being fetched.
-	 * @return A <code>List</code> of <code>Material</code>.
+	 * @param statement A statement prepared with
+	 * 					<code>Statement.RETURN_GENERATED_KEYS</code>.
+	 * @param projects The projects inserted by the last execution.
+	 * @throws SQLException if fewer keys than projects were generated.
 	 */
+	
+	private void assignGeneratedIds(Statement statement, List<Project> projects) throws SQLException {
+		assignGeneratedIds(statement, projects, Project::setProjectId);
+	}
+	
+	/**
+	 * Reads the keys generated by the last execution of the statement and
+	 * sets them, in order, on the given rows.
+	 * 
+	 * @param statement A statement prepared with
+	 * 					<code>Statement.RETURN_GENERATED_KEYS</code>.
+	 * @param rows The rows inserted by the last execution.
+	 * @param setId Sets a generated key on a row.
+	 * @throws SQLException if fewer keys than rows were generated.
+	 */
+	
+	private <T> void assignGeneratedIds(Statement statement, List<T> rows, ObjIntConsumer<T> setId)
+			throws SQLException {
+		try (ResultSet keys = statement.getGeneratedKeys()) {
+			for (T row : rows) {
+				if (!keys.next()) {
+					throw new SQLException("Unable to retrieve the primary key value. Expected "
+							+ rows.size() + " generated keys.");
+				}
+				setId.accept(row, keys.getInt(1));
+			}
+		}
+	}
 
-
-	private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId) throws SQLException {
+	/**
+	 * Streams every row of the projects table, ordered by project ID, without
+	 * holding them all in memory. Rows are read from the server as the stream
+	 * is consumed, so memory use does not depend on the number of projects.
+	 * The <code>notes</code> column is not selected; callers that need a
+	 * project's notes should use <code>fetchProjectById</code>.
+	 * 
+	 * By default the rows are streamed one at a time over a pooled
+	 * connection. A positive <code>projects.streamFetchSize</code> system
+	 * property instead reads that many rows at a time through a server-side
+	 * cursor, on a connection of the stream's own.
+	 * 
+	 * The stream holds its connection until it is closed, so it must be used
+	 * in a try-with-resources block.
+	 * 
+	 * @return a <code>Stream</code> of <code>Project</code>, which must be
+	 * closed.
+	 * @throws <code>DbException</code>
+	 */
+	
+	public Stream<Project> streamAllProjects() {
 		
-		// @formatter:off
-		String sql = ""
-				+ "SELECT * FROM " + ProjectDao.MATERIAL_TABLE
-				+ " WHERE project_id = ?";
-		// @formatter:on
+		int fetchSize = Integer.getInteger("projects.streamFetchSize", 0);
 		
-		try (PreparedStatement statement = conn.prepareStatement(sql)){
-			
-			setParameter(statement, 1, projectId, Integer.class);
+		Connection conn = fetchSize > 0 ? DbConnection.getCursorConnection() : DbConnection.getConnection();
+		List<AutoCloseable> resources = new ArrayList<>();
+		
+		try {
+			conn.setReadOnly(true);
+			ResultSet rs = openCursor(conn, SELECT_ALL_PROJECTS, fetchSize > 0 ? fetchSize : Integer.MIN_VALUE,
+					resources);
+			ProjectRowMapper mapper = new ProjectRowMapper(rs.getMetaData());
 			
-			try(ResultSet rs = statement.executeQuery()) {
+			Spliterator<Project> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+					Spliterator.ORDERED | Spliterator.NONNULL) {
 				
-				List<Material> materials = new LinkedList<>();
-				
-				while(rs.next()) {
-					materials.add(extract(rs, Material.class));
+				@Override
+				public boolean tryAdvance(Consumer<? super Project> action) {
+					try {
+						if (!rs.next()) {
+							return false;
+						}
+						action.accept(mapper.map(rs));
+						return true;
+					}
+					catch (SQLException e) {
+						throw new DbException(e);
+					}
 				}
 				
-				return materials;
-				
+			};
+			
+			return StreamSupport.stream(rows, false).onClose(() -> closeAll(resources, conn));
+		}
+		catch (SQLException | RuntimeException e) {
+			try {
+				closeAll(resources, conn);
+			}
+			catch (RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
 			}
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
 		}
 	}
-	
+
 	/**
-	 * Updates a row of the project table based on the values contained in the
-	 * <code>Project</code> instance passed to it.
+	 * Streams every project together with its materials, steps and
+	 * categories, in project ID order, without holding more than one project
+	 * graph in memory. The project, material, step and project_category
+	 * tables are each read in project ID order through a server-side cursor
+	 * fetching <code>projects.exportFetchSize</code> rows at a time, and the
+	 * child rows are merged into each project as the cursors advance
+	 * together. All four cursors are read on one connection, in a
+	 * consistent-snapshot read-only transaction, so the graphs are consistent
+	 * with each other however long the export runs.
 	 * 
-	 * @param updatedProject The <code>Project</code> instance containing the
-	 * values to be updated.
-	 * @return A <code>boolean</code> representing the success of the
-	 * transaction.
+	 * The cursors need a connection with cursor fetching turned on, which the
+	 * pooled connections leave off, so the stream opens a connection of its
+	 * own and holds it until it is closed.
+	 * 
+	 * @return a <code>Stream</code> of <code>Project</code> graphs, which must
+	 * be closed.
 	 * @throws <code>DbException</code>
 	 */
-
-	public boolean modifyProjectDetails(Project updatedProject) {
+	
+	public Stream<Project> streamAllProjectGraphs() {
 		
-		// @formatter:off
-		String sql = ""
-				+ "UPDATE " + ProjectDao.PROJECT_TABLE + " SET "
-				+ "project_name = ?, "
-				+ "estimated_hours = ?, "
-				+ "actual_hours = ?, "
-				+ "difficulty = ?, "
-				+ "notes = ? "
-				+ "WHERE project_id = ?";
-		// @formatter:on
+		int fetchSize = Integer.getInteger("projects.exportFetchSize", 1000);
 		
-		try (Connection conn = DbConnection.getConnection()) {
-			
-			startTransaction(conn);
+		// Load the categories first, on a connection of their own, so that
+		// merging them in needs no queries of its own.
+		CATEGORY_REGISTRY.getAll();
+		
+		Connection conn = DbConnection.getCursorConnection();
+		List<AutoCloseable> resources = new ArrayList<>();
+		
+		try {
+			conn.setReadOnly(true);
+			try (Statement begin = conn.createStatement()) {
+				begin.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY");
+			}
+			resources.add(() -> {
+				try (Statement end = conn.createStatement()) {
+					end.execute("COMMIT");
+				}
+			});
+			
+			ResultSet projects = openCursor(conn, EXPORT_PROJECTS, fetchSize, resources);
+			MergeCursor materials = new MergeCursor(openCursor(conn, EXPORT_MATERIALS, fetchSize, resources));
+			MergeCursor steps = new MergeCursor(openCursor(conn, EXPORT_STEPS, fetchSize, resources));
+			MergeCursor categories = new MergeCursor(openCursor(conn, EXPORT_PROJECT_CATEGORIES, fetchSize, resources));
+			
+			ProjectRowMapper projectMapper = new ProjectRowMapper(projects.getMetaData());
+			MaterialRowMapper materialMapper = new MaterialRowMapper(materials.rs.getMetaData());
+			StepRowMapper stepMapper = new StepRowMapper(steps.rs.getMetaData());
+			
+			Spliterator<Project> graphs = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+					Spliterator.ORDERED | Spliterator.NONNULL) {
+				
+				@Override
+				public boolean tryAdvance(Consumer<? super Project> action) {
+					try {
+						if (!projects.next()) {
+							return false;
+						}
+						Project project = projectMapper.map(projects);
+						int projectId = project.getProjectId();
+						
+						while (materials.at(projectId)) {
+							project.getMaterials().add(materialMapper.map(materials.rs));
+							materials.next();
+						}
+						while (steps.at(projectId)) {
+							project.getSteps().add(stepMapper.map(steps.rs));
+							steps.next();
+						}
+						while (categories.at(projectId)) {
+							project.getCategories().add(CATEGORY_REGISTRY.get(conn, categories.rs.getInt(2)));
+							categories.next();
+						}
+						
+						action.accept(project);
+						return true;
+					}
+					catch (SQLException e) {
+						throw new DbException(e);
+					}
+				}
+				
+			};
+			
+			return StreamSupport.stream(graphs, false).onClose(() -> closeAll(resources, conn));
+		}
+		catch (SQLException | RuntimeException e) {
+			try {
+				closeAll(resources, conn);
+			}
+			catch (RuntimeException suppressed) {
+				e.addSuppressed(suppressed);
+			}
+			throw e instanceof DbException ? (DbException) e : new DbException(e);
+		}
+	}
+	
+	/**
+	 * Opens a forward-only cursor over a whole table. The statement and
+	 * result set are added to <code>resources</code>, to be closed with the
+	 * stream. A fetch size of <code>Integer.MIN_VALUE</code> streams the rows
+	 * one at a time instead.
+	 */
+	
+	private ResultSet openCursor(Connection conn, NamedStatement query, int fetchSize,
+			List<AutoCloseable> resources) throws SQLException {
+		PreparedStatement statement = prepareStatement(conn, query);
+		resources.add(statement);
+		statement.setFetchSize(fetchSize);
+		ResultSet rs = statement.executeQuery();
+		resources.add(rs);
+		return rs;
+	}
+	
+	/**
+	 * Closes the resources of a stream in the reverse of the order they were
+	 * opened, then the connection.
+	 */
+	
+	private static void closeAll(List<AutoCloseable> resources, Connection conn) {
+		DbException failure = null;
+		for (int index = resources.size() - 1; index >= 0; index--) {
+			try {
+				resources.get(index).close();
+			}
+			catch (Exception e) {
+				failure = Objects.isNull(failure) ? new DbException(e) : failure;
+			}
+		}
+		try {
+			conn.close();
+		}
+		catch (SQLException e) {
+			failure = Objects.isNull(failure) ? new DbException(e) : failure;
+		}
+		if (Objects.nonNull(failure)) {
+			throw failure;
+		}
+	}
+	
+	/**
+	 * A cursor over child rows ordered by project ID, read alongside the
+	 * cursor over the project table. The first column named
+	 * <code>project_id</code> is used to match rows to projects; rows of
+	 * projects that have no project row are skipped.
+	 */
+	
+	private static final class MergeCursor {
+		
+		private final ResultSet rs;
+		private final int projectIdColumn;
+		private boolean onRow;
+		
+		private MergeCursor(ResultSet rs) throws SQLException {
+			this.rs = rs;
+			this.projectIdColumn = rs.findColumn("project_id");
+			this.onRow = rs.next();
+		}
+		
+		/**
+		 * Skips rows of earlier projects.
+		 * 
+		 * @return whether the cursor is on a row of the given project.
+		 */
+		
+		private boolean at(int projectId) throws SQLException {
+			while (onRow && rs.getInt(projectIdColumn) < projectId) {
+				onRow = rs.next();
+			}
+			return onRow && rs.getInt(projectIdColumn) == projectId;
+		}
+		
+		private void next() throws SQLException {
+			onRow = rs.next();
+		}
+		
+	}
+	
+	/**
+	 * Fetches one page of the projects table: the first <code>limit</code>
+	 * rows with a project ID greater than <code>afterId</code>, in ID order.
+	 * Because the page is found through the primary key rather than an
+	 * <code>OFFSET</code>, its cost does not grow with the size of the table
+	 * or with how far into the table the page is. The <code>notes</code>
+	 * column is not selected.
+	 * 
+	 * @param afterId The ID of the last project on the previous page, or
+	 * 					<code>null</code> for the first page.
+	 * @param limit The maximum number of projects on the page.
+	 * @return a <code>List</code> of <code>Project</code>, in ascending ID
+	 * order.
+	 * @throws <code>DbException</code>
+	 */
+	
+	public List<Project> fetchProjectsAfter(Integer afterId, int limit) {
+		
+		return fetchProjectPage(SELECT_PROJECTS_AFTER, Objects.isNull(afterId) ? 0 : afterId, limit);
+	}
+	
+	/**
+	 * Fetches the page of the projects table preceding a given project: the
+	 * last <code>limit</code> rows with a project ID less than
+	 * <code>beforeId</code>, returned in ascending ID order. Like
+	 * <code>fetchProjectsAfter</code>, it seeks through the primary key.
+	 * 
+	 * @param beforeId The ID of the first project on the following page.
+	 * @param limit The maximum number of projects on the page.
+	 * @return a <code>List</code> of <code>Project</code>, in ascending ID
+	 * order.
+	 * @throws <code>DbException</code>
+	 */
+	
+	public List<Project> fetchProjectsBefore(Integer beforeId, int limit) {
+		
+		List<Project> page = fetchProjectPage(SELECT_PROJECTS_BEFORE, beforeId, limit);
+		Collections.reverse(page);
+		return page;
+	}
+	
+	/**
+	 * Runs a keyset page query whose two parameters are the boundary project
+	 * ID and the page size.
+	 */
+	
+	private List<Project> fetchProjectPage(NamedStatement query, Integer boundaryId, int limit) {
+		try (Connection conn = DbConnection.getConnection()) {
+			try (PreparedStatement statement = prepareStatement(conn, query)) {
+				setParameter(statement, 1, boundaryId, Integer.class);
+				setParameter(statement, 2, limit, Integer.class);
+				try (ResultSet rs = statement.executeQuery()) {
+					List<Project> page = new ArrayList<>(limit);
+					ProjectRowMapper mapper = new ProjectRowMapper(rs.getMetaData());
+					while (rs.next()) {
+						page.add(mapper.map(rs));
+					}
+					return page;
+				}
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+
+	/**
+	 * Fetches a specific row from the projects table, together with its
+	 * materials, steps and categories.
+	 * 
+	 * When parallel child loading is enabled the project and its three child
+	 * collections are read concurrently by <code>fetchProjectParallel</code>.
+	 * Otherwise, when aggregate loading is enabled (the default) the whole
+	 * graph is read in a single round trip by
+	 * <code>fetchProjectAggregate</code>. Failing both, the project and each
+	 * child collection are read one after another with separate queries.
+	 * 
+	 * @param projectId The numerical ID associated with the project to be
+	 * 					fetched.
+	 * @return an <code>Optional</code> object representing the row.
+	 * @throws <code>DbException</code>
+	 */
+	
+	public Optional<Project> fetchProjectById(Integer projectId) {
+		
+		if (parallelChildLoading) {
+			return fetchProjectParallel(projectId);
+		}
+		
+		if (aggregateLoading && !graphProcedureMissing) {
+			return fetchProjectAggregate(projectId);
+		}
+		
+		return fetchProjectSequential(projectId);
+	}
+	
+	/**
+	 * Fetches a project and then each of its child collections with separate
+	 * queries, in one transaction on one connection.
+	 * 
+	 * @param projectId The numerical ID of the project to fetch.
+	 * @return an <code>Optional</code> object representing the project graph.
+	 * @throws <code>DbException</code>
+	 */
+	
+	private Optional<Project> fetchProjectSequential(Integer projectId) {
+		
+		try(Connection conn = DbConnection.getConnection()) {
+			
+			startTransaction(conn);
+			
+			try {
+				
+				Project project = fetchProjectRow(conn, projectId);
+				
+				if (Objects.nonNull(project)) {
+					
+					project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
+					project.getSteps().addAll(fetchStepsForProject(conn, projectId));
+					project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+				
+				}
+				
+				commitTransaction(conn);
+				
+				return Optional.ofNullable(project);
+			}
+			catch(Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/**
+	 * Reads a single row of the projects table.
+	 * 
+	 * @param conn A <code>Connection</code> object.
+	 * @param projectId The numerical ID of the project.
+	 * @return the <code>Project</code>, without its child collections, or
+	 * <code>null</code> if there is no such row.
+	 */
+	
+	private Project fetchProjectRow(Connection conn, Integer projectId) throws SQLException {
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_PROJECT_BY_ID)) {
+			setParameter(statement, 1, projectId, Integer.class);
+			try (ResultSet rs = statement.executeQuery()) {
+				return readProjectRow(rs);
+			}
+		}
+	}
+	
+	/**
+	 * @return the first row of a project result set, or <code>null</code> if
+	 * it is empty.
+	 */
+	
+	private Project readProjectRow(ResultSet rs) throws SQLException {
+		return rs.next() ? new ProjectRowMapper(rs.getMetaData()).map(rs) : null;
+	}
+	
+	/**
+	 * Fetches a project and its child collections with four concurrent
+	 * queries, run on <code>CHILD_LOADER</code>, so the load takes about as
+	 * long as the slowest query rather than the sum of all four. The calling
+	 * thread waits only until every query has finished or the first one has
+	 * failed. As soon as a query fails, or the project turns out not to
+	 * exist, the queries still running are cancelled on the server with
+	 * <code>Statement.cancel</code>.
+	 * 
+	 * Each query borrows its own pooled connection and reads inside its own
+	 * read-only transaction, and no query holds a connection while waiting
+	 * for another, so concurrent callers cannot deadlock on the pool. MySQL
+	 * cannot share a snapshot between connections, however, so a write
+	 * committed while the four queries are running may be seen by some of
+	 * them and not others. Use the sequential or aggregate load when the
+	 * graph must come from a single snapshot.
+	 * 
+	 * @param projectId The numerical ID of the project to fetch.
+	 * @return an <code>Optional</code> object representing the project graph.
+	 * @throws <code>DbException</code>
+	 */
+	
+	private Optional<Project> fetchProjectParallel(Integer projectId) {
+		
+		ParallelLoad load = new ParallelLoad();
+		
+		CompletableFuture<Project> row = load.submit(SELECT_PROJECT_BY_ID, projectId, this::readProjectRow);
+		CompletableFuture<List<Material>> materials = load.submit(SELECT_MATERIALS_BY_PROJECT, projectId,
+				this::readMaterials);
+		CompletableFuture<List<Step>> steps = load.submit(SELECT_STEPS_BY_PROJECT, projectId, this::readSteps);
+		CompletableFuture<List<Integer>> categoryIds = load.submit(SELECT_CATEGORY_IDS_BY_PROJECT, projectId,
+				this::readCategoryIds);
+		
+		row.thenAccept(project -> {
+			if (Objects.isNull(project)) {
+				load.cancel();
+			}
+		});
+		
+		try {
+			load.await();
+		}
+		catch (CompletionException e) {
+			if (row.isDone() && !row.isCompletedExceptionally() && Objects.isNull(row.join())) {
+				return Optional.empty();
+			}
+			throw e.getCause() instanceof DbException ? (DbException) e.getCause() : new DbException(e.getCause());
+		}
+		
+		Project project = row.join();
+		
+		if (Objects.isNull(project)) {
+			return Optional.empty();
+		}
+		
+		project.getMaterials().addAll(materials.join());
+		project.getSteps().addAll(steps.join());
+		
+		for (int categoryId : categoryIds.join()) {
+			Category category = CATEGORY_REGISTRY.get(categoryId);
+			if (Objects.nonNull(category)) {
+				project.getCategories().add(category);
+			}
+		}
+		
+		return Optional.of(project);
+	}
+	
+	/**
+	 * The queries of one <code>fetchProjectParallel</code> call. Keeps track
+	 * of the statements that are executing, so that they can all be cancelled
+	 * once any query fails. A statement is cancelled and unregistered under
+	 * the same lock, so a statement that has finished and gone back to its
+	 * connection's cache is never cancelled.
+	 */
+	
+	private final class ParallelLoad {
+		
+		private final List<CompletableFuture<?>> queries = new ArrayList<>();
+		private final CompletableFuture<Void> failed = new CompletableFuture<>();
+		private final Set<Statement> running = new HashSet<>();
+		private boolean cancelled;
+		
+		/**
+		 * Runs a query taking a project ID on <code>CHILD_LOADER</code>. If it
+		 * fails, every other query of the load is cancelled.
+		 */
+		
+		private <T> CompletableFuture<T> submit(NamedStatement query, Integer projectId, ResultReader<T> reader) {
+			CompletableFuture<T> future = CompletableFuture.supplyAsync(
+					() -> readOnlyQuery(conn -> execute(conn, query, projectId, reader)),
+					ChildLoaderHolder.CHILD_LOADER);
+			future.whenComplete((result, e) -> {
+				if (Objects.nonNull(e)) {
+					failed.completeExceptionally(e);
+					cancel();
+				}
+			});
+			queries.add(future);
+			return future;
+		}
+		
+		private <T> T execute(Connection conn, NamedStatement query, Integer projectId, ResultReader<T> reader)
+				throws SQLException {
+			try (PreparedStatement statement = prepareStatement(conn, query)) {
+				setParameter(statement, 1, projectId, Integer.class);
+				started(statement);
+				try (ResultSet rs = statement.executeQuery()) {
+					return reader.read(rs);
+				}
+				finally {
+					finished(statement);
+				}
+			}
+		}
+		
+		/**
+		 * Waits until every query has completed or one has failed.
+		 * 
+		 * @throws CompletionException with the first failure.
+		 */
+		
+		private void await() {
+			CompletableFuture.anyOf(CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new)), failed).join();
+		}
+		
+		private synchronized void started(Statement statement) throws SQLException {
+			if (cancelled) {
+				throw new SQLException("The load was cancelled.");
+			}
+			running.add(statement);
+		}
+		
+		private synchronized void finished(Statement statement) {
+			running.remove(statement);
+		}
+		
+		/**
+		 * Cancels every executing statement, and makes any query that has not
+		 * yet started fail instead of running.
+		 */
+		
+		private synchronized void cancel() {
+			cancelled = true;
+			for (Statement statement : running) {
+				try {
+					statement.cancel();
+				}
+				catch (SQLException e) {
+					// The statement may already have finished; there is nothing more to stop.
+				}
+			}
+		}
+		
+	}
+	
+	/**
+	 * Reads a result set once its statement has executed.
+	 * 
+	 * @param <T> The type of the result.
+	 */
+	
+	@FunctionalInterface
+	private interface ResultReader<T> {
+		T read(ResultSet rs) throws SQLException;
+	}
+	
+	/**
+	 * Runs a query on a newly borrowed connection inside a read-only
+	 * transaction.
+	 * 
+	 * @param query The query to run.
+	 * @return the query's result.
+	 * @throws <code>DbException</code>
+	 */
+	
+	private <T> T readOnlyQuery(ConnectionQuery<T> query) {
+		try (Connection conn = DbConnection.getConnection()) {
+			conn.setReadOnly(true);
+			startTransaction(conn);
+			try {
+				T result = query.run(conn);
+				commitTransaction(conn);
+				return result;
+			}
+			catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/**
+	 * A query run by <code>readOnlyQuery</code> on the connection it borrows.
+	 * 
+	 * @param <T> The type of the query's result.
+	 */
+	
+	@FunctionalInterface
+	private interface ConnectionQuery<T> {
+		T run(Connection conn) throws SQLException;
+	}
+	
+	/**
+	 * Fetches several projects, each with its materials, steps and
+	 * categories. The IDs are split into chunks of
+	 * <code>inListChunkSize</code>; for each chunk the project rows are read
+	 * with one <code>IN</code>-list query, and then the materials, steps and
+	 * categories of the projects that were found are read with one query
+	 * each. Child rows are matched to their project through an
+	 * <code>int</code>-keyed map. The number of queries therefore depends only
+	 * on the number of chunks, not on the number of projects. All chunks are
+	 * read in one transaction on one connection.
+	 * 
+	 * @param projectIds The IDs of the projects to fetch. Duplicates and
+	 * 					<code>null</code>s are ignored.
+	 * @return a <code>List</code> of <code>Project</code>, in the order their
+	 * IDs were first given. IDs with no matching project are omitted.
+	 * @throws <code>DbException</code>
+	 */
+	
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		
+		int[] ids = projectIds.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).distinct().toArray();
+		
+		if (ids.length == 0) {
+			return new ArrayList<>();
+		}
+		
+		try (Connection conn = DbConnection.getConnection()) {
+			
+			conn.setReadOnly(true);
+			startTransaction(conn);
+			
+			try {
+				IntObjectMap<Project> projectsById = new IntObjectMap<>(ids.length);
+				
+				for (int from = 0; from < ids.length; from += inListChunkSize) {
+					int[] chunk = Arrays.copyOfRange(ids, from, Math.min(from + inListChunkSize, ids.length));
+					fetchProjectChunk(conn, chunk, projectsById);
+				}
+				
+				commitTransaction(conn);
+				
+				List<Project> projects = new ArrayList<>(projectsById.size());
+				for (int id : ids) {
+					Project project = projectsById.get(id);
+					if (Objects.nonNull(project)) {
+						projects.add(project);
+					}
+				}
+				return projects;
+			}
+			catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/**
+	 * Reads one chunk of projects and their child rows into
+	 * <code>projectsById</code>.
+	 */
+	
+	private void fetchProjectChunk(Connection conn, int[] chunk, IntObjectMap<Project> projectsById)
+			throws SQLException {
+		
+		// @formatter:off
+		String projectSql = ""
+				+ "SELECT * FROM " + ProjectDao.PROJECT_TABLE
+				+ " WHERE project_id IN (" + placeholders(chunk.length) + ")";
+		// @formatter:on
+		
+		int[] found;
+		
+		try (PreparedStatement statement = prepareStatement(conn, "project.selectByIds", projectSql)) {
+			bindIds(statement, chunk);
+			try (ResultSet rs = statement.executeQuery()) {
+				ProjectRowMapper mapper = new ProjectRowMapper(rs.getMetaData());
+				int[] foundIds = new int[chunk.length];
+				int count = 0;
+				while (rs.next()) {
+					Project project = mapper.map(rs);
+					projectsById.put(project.getProjectId(), project);
+					foundIds[count++] = project.getProjectId();
+				}
+				found = Arrays.copyOf(foundIds, count);
+			}
+		}
+		
+		if (found.length == 0) {
+			return;
+		}
+		
+		String in = placeholders(found.length);
+		
+		// @formatter:off
+		String materialSql = ""
+				+ "SELECT * FROM " + ProjectDao.MATERIAL_TABLE
+				+ " WHERE project_id IN (" + in + ")";
+		String stepSql = ""
+				+ "SELECT * FROM " + ProjectDao.STEP_TABLE
+				+ " WHERE project_id IN (" + in + ") ORDER BY project_id, step_order";
+		String categorySql = ""
+				+ "SELECT project_id, category_id FROM " + ProjectDao.PROJECT_CATEGORY_TABLE
+				+ " WHERE project_id IN (" + in + ")";
+		// @formatter:on
+		
+		try (PreparedStatement statement = prepareStatement(conn, "material.selectByProjects", materialSql)) {
+			bindIds(statement, found);
+			try (ResultSet rs = statement.executeQuery()) {
+				MaterialRowMapper mapper = new MaterialRowMapper(rs.getMetaData());
+				while (rs.next()) {
+					Material material = mapper.map(rs);
+					projectsById.get(material.getProjectId()).getMaterials().add(material);
+				}
+			}
+		}
+		
+		try (PreparedStatement statement = prepareStatement(conn, "step.selectByProjects", stepSql)) {
+			bindIds(statement, found);
+			try (ResultSet rs = statement.executeQuery()) {
+				StepRowMapper mapper = new StepRowMapper(rs.getMetaData());
+				while (rs.next()) {
+					Step step = mapper.map(rs);
+					projectsById.get(step.getProjectId()).getSteps().add(step);
+				}
+			}
+		}
+		
+		try (PreparedStatement statement = prepareStatement(conn, "projectCategory.selectByProjects", categorySql)) {
+			bindIds(statement, found);
+			List<int[]> links = new ArrayList<>();
+			try (ResultSet rs = statement.executeQuery()) {
+				while (rs.next()) {
+					links.add(new int[] { rs.getInt(1), rs.getInt(2) });
+				}
+			}
+			for (int[] link : links) {
+				addCategory(conn, projectsById.get(link[0]), link[1]);
+			}
+		}
+	}
+	
+	/**
+	 * @param count The number of placeholders.
+	 * @return <code>count</code> comma-separated <code>?</code> placeholders
+	 * for an <code>IN</code> list.
+	 */
+	
+	private static String placeholders(int count) {
+		return String.join(", ", Collections.nCopies(count, "?"));
+	}
+	
+	/**
+	 * Binds each ID to consecutive parameters, starting at the first.
+	 */
+	
+	private static void bindIds(PreparedStatement statement, int[] ids) throws SQLException {
+		for (int index = 0; index < ids.length; index++) {
+			statement.setInt(index + 1, ids[index]);
+		}
+	}
+	
+	/**
+	 * Switches <code>fetchProjectById</code> between the single round trip
+	 * aggregate load and the original query-per-collection load.
+	 * 
+	 * @param aggregateLoading <code>true</code> to load each project graph in
+	 * 					one round trip.
+	 */
+	
+	public void setAggregateLoading(boolean aggregateLoading) {
+		this.aggregateLoading = aggregateLoading;
+	}
+	
+	/**
+	 * Switches <code>fetchProjectById</code> to reading the project row and
+	 * its child collections concurrently. Takes precedence over aggregate
+	 * loading while enabled.
+	 * 
+	 * @param parallelChildLoading <code>true</code> to run the four queries
+	 * 					concurrently.
+	 */
+	
+	public void setParallelChildLoading(boolean parallelChildLoading) {
+		this.parallelChildLoading = parallelChildLoading;
+	}
+	
+	/**
+	 * The largest number of pooled connections a single call to
+	 * <code>fetchProjectById</code> holds at once: one for each of its four
+	 * queries while parallel child loading is on, otherwise one.
+	 * 
+	 * @return the number of connections borrowed per fetch.
+	 */
+	
+	public int getConnectionsPerFetch() {
+		return parallelChildLoading ? PARALLEL_FETCH_QUERIES : 1;
+	}
+	
+	/**
+	 * Fetches a project and all of its child rows in a single round trip to
+	 * the server, by calling the <code>fetch_project_graph</code> stored
+	 * procedure. The procedure reads the project, material, step and category
+	 * rows in a read-only transaction, so that all four see the same
+	 * snapshot, and returns them as four result sets, which are read in
+	 * order. Steps are returned ordered by <code>step_order</code>.
+	 * 
+	 * If the schema predates the procedure, every later call uses the
+	 * query-per-collection load instead.
+	 * 
+	 * @param projectId The numerical ID of the project to fetch.
+	 * @return an <code>Optional</code> object representing the project graph.
+	 * @throws <code>DbException</code>
+	 */
+	
+	private Optional<Project> fetchProjectAggregate(Integer projectId) {
+		
+		try (Connection conn = DbConnection.getConnection()) {
 			
-			try(PreparedStatement statement = conn.prepareStatement(sql)) {
-				setParameter(statement, 1, updatedProject.getProjectName(), String.class);
-				setParameter(statement, 2, updatedProject.getEstimatedHours(), BigDecimal.class);
-				setParameter(statement, 3, updatedProject.getActualHours(), BigDecimal.class);
-				setParameter(statement, 4, updatedProject.getDifficulty(), Integer.class);
-				setParameter(statement, 5, updatedProject.getNotes(), String.class);
-				setParameter(statement, 6, updatedProject.getProjectId(), Integer.class);
-				int success = statement.executeUpdate();
+			try (PreparedStatement statement = prepareStatement(conn, SELECT_PROJECT_GRAPH)) {
+				
+				setParameter(statement, 1, projectId, Integer.class);
+				
+				statement.execute();
+				
+				Project project = null;
+				
+				try (ResultSet rs = statement.getResultSet()) {
+					if (rs.next()) {
+						project = new ProjectRowMapper(rs.getMetaData()).map(rs);
+					}
+				}
+				
+				try (ResultSet rs = nextResultSet(statement)) {
+					MaterialRowMapper mapper = new MaterialRowMapper(rs.getMetaData());
+					while (Objects.nonNull(project) && rs.next()) {
+						project.getMaterials().add(mapper.map(rs));
+					}
+				}
+				
+				try (ResultSet rs = nextResultSet(statement)) {
+					StepRowMapper mapper = new StepRowMapper(rs.getMetaData());
+					while (Objects.nonNull(project) && rs.next()) {
+						project.getSteps().add(mapper.map(rs));
+					}
+				}
+				
+				List<Integer> categoryIds = new ArrayList<>();
+				
+				try (ResultSet rs = nextResultSet(statement)) {
+					while (Objects.nonNull(project) && rs.next()) {
+						categoryIds.add(rs.getInt(1));
+					}
+				}
+				
+				/* Read past the status of the CALL itself. */
+				boolean moreResults;
+				do {
+					moreResults = statement.getMoreResults() || statement.getUpdateCount() != -1;
+				} while (moreResults);
+				
+				for (int categoryId : categoryIds) {
+					addCategory(conn, project, categoryId);
+				}
+				
+				return Optional.ofNullable(project);
+			}
+			catch (Exception e) {
+				/* The transaction was started by the procedure, so end it the same way. */
+				try (Statement rollback = conn.createStatement()) {
+					rollback.execute("ROLLBACK");
+				}
+				if (e instanceof SQLException && ((SQLException) e).getErrorCode() == ER_SP_DOES_NOT_EXIST) {
+					graphProcedureMissing = true;
+				}
+				else {
+					throw new DbException(e);
+				}
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+		
+		return fetchProjectSequential(projectId);
+	}
+	
+	/**
+	 * Advances a statement that returned multiple results past its current
+	 * result to the next result set, skipping any update counts.
+	 * 
+	 * @param statement A statement that has been executed.
+	 * @return the next <code>ResultSet</code>.
+	 * @throws SQLException if there are no more result sets.
+	 */
+	
+	private ResultSet nextResultSet(Statement statement) throws SQLException {
+		while (!statement.getMoreResults()) {
+			if (statement.getUpdateCount() == -1) {
+				throw new SQLException("Expected another result set.");
+			}
+		}
+		return statement.getResultSet();
+	}
+	
+	/**
+	 * Obtains all rows of the category table corresponding to the provided 
+	 * projectId.
+	 * 
+	 * @param conn A <code>Connection</code> object.
+	 * @param projectId The numerical ID of the project for which the rows from
+	 * 					the category table are being fetched.
+	 * @return A <code>List</code> of <code>Category</code>.
+	 */
+
+	private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId) throws SQLException {
+		
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_CATEGORY_IDS_BY_PROJECT)){
+			
+			setParameter(statement, 1, projectId, Integer.class);
+			
+			List<Integer> categoryIds;
+			
+			try(ResultSet rs = statement.executeQuery()) {
+				categoryIds = readCategoryIds(rs);
+			}
+			
+			List<Category> categories = new LinkedList<>();
+			
+			for (int categoryId : categoryIds) {
+				Category category = CATEGORY_REGISTRY.get(conn, categoryId);
+				if (Objects.nonNull(category)) {
+					categories.add(category);
+				}
+			}
+			
+			return categories;
+		}
+	}
+	
+	/**
+	 * @return the category IDs in a project_category result set.
+	 */
+	
+	private List<Integer> readCategoryIds(ResultSet rs) throws SQLException {
+		List<Integer> categoryIds = new ArrayList<>();
+		while (rs.next()) {
+			categoryIds.add(rs.getInt(1));
+		}
+		return categoryIds;
+	}
+	
+	/**
+	 * Adds the shared <code>Category</code> instance for a category ID to a
+	 * project. IDs unknown even after refreshing the registry are skipped.
+	 * 
+	 * @param conn The connection to reload the registry on, if needed.
+	 * @param project The project to add the category to.
+	 * @param categoryId The category ID read from the project_category table.
+	 */
+	
+	private void addCategory(Connection conn, Project project, int categoryId) throws SQLException {
+		Category category = CATEGORY_REGISTRY.get(conn, categoryId);
+		if (Objects.nonNull(category)) {
+			project.getCategories().add(category);
+		}
+	}
+	
+	/**
+	 * Reloads the in-memory copy of the category table. Should be called after
+	 * categories are added or renamed outside this application.
+	 * 
+	 * @throws <code>DbException</code>
+	 */
+	
+	public void refreshCategories() {
+		CATEGORY_REGISTRY.refresh();
+	}
+	
+	/**
+	 * Obtains all rows of the step table corresponding to the provided 
+	 * projectId.
+	 * 
+	 * @param conn A <code>Connection</code> object.
+	 * @param projectId The numerical ID of the project for which the rows from
+	 * 					the step table are being fetched.
+	 * @return A <code>List</code> of <code>Step</code>.
+	 */
+
+
+	private List<Step> fetchStepsForProject(Connection conn, Integer projectId) throws SQLException {
+		
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_STEPS_BY_PROJECT)){
+			
+			setParameter(statement, 1, projectId, Integer.class);
+			
+			try(ResultSet rs = statement.executeQuery()) {
+				return readSteps(rs);
+			}
+		}
+	}
+	
+	/**
+	 * @return the steps in a step result set.
+	 */
+	
+	private List<Step> readSteps(ResultSet rs) throws SQLException {
+		List<Step> steps = new LinkedList<>();
+		StepRowMapper mapper = new StepRowMapper(rs.getMetaData());
+		while (rs.next()) {
+			steps.add(mapper.map(rs));
+		}
+		return steps;
+	}
+	
+	/**
+	 * Obtains all rows of the material table corresponding to the provided 
+	 * projectId.
+	 * 
+	 * @param conn A <code>Connection</code> object.
+	 * @param projectId The numerical ID of the project for which the rows from
+	 * 					the material table are being fetched.
+	 * @return A <code>List</code> of <code>Material</code>.
+	 */
+
+
+	private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId) throws SQLException {
+		
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_MATERIALS_BY_PROJECT)){
+			
+			setParameter(statement, 1, projectId, Integer.class);
+			
+			try(ResultSet rs = statement.executeQuery()) {
+				return readMaterials(rs);
+			}
+		}
+	}
+	
+	/**
+	 * @return the materials in a material result set.
+	 */
+	
+	private List<Material> readMaterials(ResultSet rs) throws SQLException {
+		List<Material> materials = new LinkedList<>();
+		MaterialRowMapper mapper = new MaterialRowMapper(rs.getMetaData());
+		while (rs.next()) {
+			materials.add(mapper.map(rs));
+		}
+		return materials;
+	}
+	
+	/**
+	 * Updates a row of the project table based on the values contained in the
+	 * <code>Project</code> instance passed to it. Only the columns recorded
+	 * as changed by the instance are written; a project built with
+	 * <code>new Project()</code> counts every column as changed. If a
+	 * project read from the database has no changes, nothing is written and
+	 * the row is only checked to exist, so the result is the same as for a
+	 * changed project.
+	 * 
+	 * @param updatedProject The <code>Project</code> instance containing the
+	 * values to be updated.
+	 * @return A <code>boolean</code> representing the success of the
+	 * transaction.
+	 * @throws <code>DbException</code>
+	 */
+
+	public boolean modifyProjectDetails(Project updatedProject) {
+		
+		if (!updatedProject.hasChanges()) {
+			return readOnlyQuery(conn -> projectExists(conn, updatedProject.getProjectId()));
+		}
+		
+		try (Connection conn = DbConnection.getConnection()) {
+			
+			startTransaction(conn);
+			
+			try {
+				boolean success = modifyProjectDetails(conn, updatedProject);
 				commitTransaction(conn);
-				return success == 1;
+				return success;
 			}
 			catch (Exception e) {
 				rollbackTransaction(conn);
@@ -352,6 +1770,187 @@ public class ProjectDao extends DaoBase {
 		
 	}
 	
+	/**
+	 * Updates a project row on the given connection, as part of the caller's
+	 * transaction. The <code>UPDATE</code> sets only the columns the project
+	 * records as changed, so an unchanged <code>notes</code> is never sent
+	 * back. When there are no changes the row is only checked to exist.
+	 * 
+	 * @param conn A <code>Connection</code> with a transaction in progress.
+	 * @param updatedProject The <code>Project</code> instance containing the
+	 * values to be updated.
+	 * @return <code>true</code> if the row exists, and was updated if it had
+	 * changes.
+	 * @throws SQLException if the row cannot be updated.
+	 */
+	
+	private boolean modifyProjectDetails(Connection conn, Project updatedProject) throws SQLException {
+		
+		Set<Project.Column> changes = updatedProject.getChangedColumns();
+		if (changes.isEmpty()) {
+			return projectExists(conn, updatedProject.getProjectId());
+		}
+		
+		int columns = 0;
+		for (Project.Column column : changes) {
+			columns |= 1 << column.ordinal();
+		}
+		
+		try (PreparedStatement statement = prepareStatement(conn, UPDATE_PROJECT_COLUMNS[columns])) {
+			int next = changes.size() == Project.Column.values().length
+					? ProjectParameterBinder.INSTANCE.bind(statement, 1, updatedProject)
+					: ProjectParameterBinder.INSTANCE.bind(statement, 1, updatedProject, columns);
+			setParameter(statement, next, updatedProject.getProjectId(), Integer.class);
+			return statement.executeUpdate() == 1;
+		}
+	}
+	
+	/**
+	 * Checks that a project row exists, without reading any of its columns.
+	 * 
+	 * @param conn The connection to query on.
+	 * @param projectId The numerical ID of the project.
+	 * @return <code>true</code> if the row exists.
+	 * @throws SQLException if the table cannot be read.
+	 */
+	
+	private boolean projectExists(Connection conn, Integer projectId) throws SQLException {
+		try (PreparedStatement statement = prepareStatement(conn, SELECT_PROJECT_ID)) {
+			setParameter(statement, 1, projectId, Integer.class);
+			try (ResultSet rs = statement.executeQuery()) {
+				return rs.next();
+			}
+		}
+	}
+	
+	/**
+	 * Registers an <code>UPDATE</code> for every non-empty set of project
+	 * columns, so that a partial update is always one of a fixed set of
+	 * statements that pooled connections keep prepared. Each is named after
+	 * its columns, such as <code>project.update[project_name,notes]</code>.
+	 * The columns are those bound by <code>ProjectParameterBinder</code>, in
+	 * the same order.
+	 */
+	
+	private static NamedStatement[] registerColumnUpdates() {
+		List<String> columns = ProjectParameterBinder.INSTANCE.columns();
+		if (columns.size() != Project.Column.values().length) {
+			throw new IllegalStateException("Project.Column does not match the columns " + columns
+					+ " bound by ProjectParameterBinder.");
+		}
+		NamedStatement[] statements = new NamedStatement[1 << columns.size()];
+		
+		for (int index = 1; index < statements.length - 1; index++) {
+			StringJoiner assignments = new StringJoiner(", ");
+			StringJoiner names = new StringJoiner(",", "project.update[", "]");
+			for (int column = 0; column < columns.size(); column++) {
+				if ((index & 1 << column) != 0) {
+					assignments.add(columns.get(column) + " = ?");
+					names.add(columns.get(column));
+				}
+			}
+			statements[index] = registerStatement(names.toString(), ""
+					+ "UPDATE " + ProjectDao.PROJECT_TABLE + " SET " + assignments
+					+ " WHERE project_id = ?");
+		}
+		statements[statements.length - 1] = UPDATE_PROJECT;
+		return statements;
+	}
+	
+	/**
+	 * Runs a group of writes in a single transaction, so that they share one
+	 * commit. Each write runs behind its own savepoint: if it fails, only its
+	 * changes are rolled back and the others still commit. The outcome of
+	 * each write is only returned once the transaction has committed.
+	 * 
+	 * @param writes The writes to run, in order.
+	 * @return one <code>GroupOutcome</code> per write, in the same order.
+	 * @throws DbException if the transaction itself cannot be committed, in
+	 * which case none of the writes took effect.
+	 */
+	
+	public List<GroupOutcome> executeGroup(List<? extends GroupedWrite<?>> writes) {
+		
+		try (Connection conn = DbConnection.getConnection()) {
+			
+			startTransaction(conn);
+			
+			try {
+				List<GroupOutcome> outcomes = new ArrayList<>(writes.size());
+				
+				for (GroupedWrite<?> write : writes) {
+					Savepoint savepoint = conn.setSavepoint();
+					try {
+						outcomes.add(new GroupOutcome(write.execute(this, conn), null));
+						conn.releaseSavepoint(savepoint);
+					}
+					catch (SQLException | RuntimeException e) {
+						conn.rollback(savepoint);
+						outcomes.add(new GroupOutcome(null, e));
+					}
+				}
+				
+				commitTransaction(conn);
+				return outcomes;
+			}
+			catch (Exception e) {
+				rollbackTransaction(conn);
+				throw new DbException(e);
+			}
+		}
+		catch (SQLException e) {
+			throw new DbException(e);
+		}
+	}
+	
+	/**
+	 * @param project The project to insert.
+	 * @return a <code>GroupedWrite</code> that inserts the project and yields
+	 * it with its generated ID set.
+	 */
+	
+	public static GroupedWrite<Project> insertProjectWrite(Project project) {
+		return (dao, conn) -> dao.insertProject(conn, project);
+	}
+	
+	/**
+	 * @param updatedProject The project values to write.
+	 * @return a <code>GroupedWrite</code> that updates the project row and
+	 * yields whether a row was updated.
+	 */
+	
+	public static GroupedWrite<Boolean> modifyProjectDetailsWrite(Project updatedProject) {
+		return (dao, conn) -> dao.modifyProjectDetails(conn, updatedProject);
+	}
+	
+	/**
+	 * A single write that can be run as part of a group by
+	 * <code>executeGroup</code>. Instances are obtained from the
+	 * <code>...Write</code> factory methods of this class.
+	 *
+	 * @param <R> The type of the write's result.
+	 */
+	
+	@FunctionalInterface
+	public interface GroupedWrite<R> {
+		
+		R execute(ProjectDao dao, Connection conn) throws SQLException;
+		
+	}
+	
+	/**
+	 * The outcome of one write in a group: either its result or the
+	 * exception that caused it to be rolled back.
+	 */
+	
+	public record GroupOutcome(Object result, Exception failure) {
+		
+		public boolean succeeded() {
+			return Objects.isNull(failure);
+		}
+		
+	}
+	
 	/**
 	 * Deletes a row of the project table.
 	 * 
@@ -362,17 +1961,11 @@ public class ProjectDao extends DaoBase {
 	 */
 
 	public boolean deleteProject(Integer projectId) {
-		// @formatter:off
-		String sql = ""
-				+ "DELETE FROM " + ProjectDao.PROJECT_TABLE
-				+ " WHERE project_id = ?";
-		// @formatter:on
-		
 		try (Connection conn = DbConnection.getConnection()) {
 			
 			startTransaction(conn);
 			
-			try (PreparedStatement statement = conn.prepareStatement(sql)) {
+			try (PreparedStatement statement = prepareStatement(conn, DELETE_PROJECT)) {
 				setParameter(statement, 1, projectId, Integer.class);
 				int success = statement.executeUpdate();
 				commitTransaction(conn);
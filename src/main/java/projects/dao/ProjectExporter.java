@@ -0,0 +1,349 @@
+package projects.dao;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectRenderer;
+import projects.entity.Step;
+import projects.entity.compact.Fixed;
+
+/**
+ * Writes every project, with its materials, steps and categories, to a file
+ * or to standard output. Projects are read one graph at a time from
+ * <code>ProjectDao.streamAllProjectGraphs</code> and encoded straight into a
+ * fixed 64 KB buffer, which is written to an NIO channel whenever it fills,
+ * through gzip if asked. Memory use therefore does not depend on the size of
+ * the database.
+ *
+ * Two formats are written:
+ *
+ * <ul>
+ * <li><code>JSON_LINES</code>: one project per line, as written by
+ * <code>ProjectRenderer.renderJson</code>. The file can be loaded into
+ * another database with <code>BulkImporter</code>.</li>
+ * <li><code>BINARY</code>: the bytes <code>PROJ</code> and a version
+ * <code>int</code> of 1, then for each project a <code>byte</code> 1
+ * followed by the project's columns, then a <code>byte</code> 0. Numbers are
+ * big-endian. An integer column is an <code>int</code>, with
+ * <code>Integer.MIN_VALUE</code> for NULL; a decimal column is a
+ * <code>long</code> in hundredths, with <code>Long.MIN_VALUE</code> for
+ * NULL; a string is its UTF-8 length as an <code>int</code>, -1 for NULL,
+ * then its bytes. The project's columns are followed by the number of
+ * materials and each material's ID, name, number required and cost; the
+ * number of steps and each step's ID, text and order; and the number of
+ * categories and each category's ID and name.</li>
+ * </ul>
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class ProjectExporter {
+
+	/**
+	 * The output formats.
+	 */
+
+	public enum Format {
+		JSON_LINES, BINARY
+	}
+
+	/**
+	 * The outcome of an export.
+	 *
+	 * @param projects The projects written.
+	 * @param rows The rows they were read from, across all four tables.
+	 * @param bytes The bytes written, before compression.
+	 * @param elapsedNanos How long the export took.
+	 */
+
+	public record Result(long projects, long rows, long bytes, long elapsedNanos) {
+
+		/**
+		 * @return rows exported per second.
+		 */
+
+		public double rowsPerSecond() {
+			return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+		}
+
+	}
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final byte[] MAGIC = { 'P', 'R', 'O', 'J' };
+	private static final int VERSION = 1;
+
+	private final ProjectDao projectDao;
+	private long progressIntervalSeconds = Long.getLong("projects.export.progressSeconds", 5L);
+
+	/**
+	 * @param projectDao The DAO the projects are read through.
+	 */
+
+	public ProjectExporter(ProjectDao projectDao) {
+		this.projectDao = projectDao;
+	}
+
+	/**
+	 * @param progressIntervalSeconds How often progress is reported, or 0 to
+	 * 					report only the final totals.
+	 */
+
+	public void setProgressIntervalSeconds(long progressIntervalSeconds) {
+		this.progressIntervalSeconds = progressIntervalSeconds;
+	}
+
+	/**
+	 * Exports every project to a file, replacing it if it exists, or to
+	 * standard output.
+	 *
+	 * @param target A file path, or <code>-</code> for standard output.
+	 * @param format The format to write.
+	 * @param gzip Whether to compress the output with gzip.
+	 * @param progress Where progress is reported, or <code>null</code>.
+	 * @return the totals.
+	 * @throws IOException if the output cannot be written.
+	 */
+
+	public Result export(String target, Format format, boolean gzip, PrintStream progress) throws IOException {
+		WritableByteChannel channel = target.equals("-")
+				? Channels.newChannel(System.out)
+				: FileChannel.open(Path.of(target), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING);
+		if (gzip) {
+			channel = Channels.newChannel(new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+		}
+
+		try (WritableByteChannel out = channel; Stream<Project> graphs = projectDao.streamAllProjectGraphs()) {
+			return write(graphs.iterator(), out, format, progress);
+		}
+	}
+
+	/**
+	 * Writes projects to a channel. The channel is not closed.
+	 *
+	 * @param projects The projects to write.
+	 * @param channel Where to write them.
+	 * @param format The format to write.
+	 * @param progress Where progress is reported, or <code>null</code>.
+	 * @return the totals.
+	 * @throws IOException if the channel cannot be written to.
+	 */
+
+	public Result write(Iterator<Project> projects, WritableByteChannel channel, Format format, PrintStream progress)
+			throws IOException {
+		long start = System.nanoTime();
+		long nextReport = start + progressIntervalSeconds * 1_000_000_000L;
+		long projectCount = 0;
+		long rows = 0;
+
+		Output out = new Output(channel);
+		StringBuilder line = new StringBuilder(1024);
+
+		if (format == Format.BINARY) {
+			out.putBytes(MAGIC);
+			out.putInt(VERSION);
+		}
+
+		while (projects.hasNext()) {
+			Project project = projects.next();
+
+			if (format == Format.BINARY) {
+				writeBinary(project, out);
+			} else {
+				line.setLength(0);
+				ProjectRenderer.renderJson(project, line);
+				line.append('\n');
+				out.putChars(line);
+			}
+
+			projectCount++;
+			rows += 1 + project.getMaterials().size() + project.getSteps().size() + project.getCategories().size();
+
+			if (Objects.nonNull(progress) && progressIntervalSeconds > 0 && (projectCount & 0xFF) == 0
+					&& System.nanoTime() >= nextReport) {
+				progress.printf("Exported %,d projects (%,d rows), %,d bytes%n", projectCount, rows, out.bytes());
+				nextReport = System.nanoTime() + progressIntervalSeconds * 1_000_000_000L;
+			}
+		}
+
+		if (format == Format.BINARY) {
+			out.putByte((byte) 0);
+		}
+		out.flush();
+
+		Result result = new Result(projectCount, rows, out.bytes(), System.nanoTime() - start);
+		if (Objects.nonNull(progress)) {
+			progress.printf("Exported %,d projects (%,d rows, %,d bytes) in %.1f s, %,.0f rows/s%n",
+					result.projects(), result.rows(), result.bytes(), result.elapsedNanos() / 1e9,
+					result.rowsPerSecond());
+		}
+		return result;
+	}
+
+	private static void writeBinary(Project project, Output out) throws IOException {
+		out.putByte((byte) 1);
+		out.putInt(Fixed.toInt(project.getProjectId()));
+		out.putString(project.getProjectName());
+		out.putLong(Fixed.toHundredths(project.getEstimatedHours()));
+		out.putLong(Fixed.toHundredths(project.getActualHours()));
+		out.putInt(Fixed.toInt(project.getDifficulty()));
+		out.putString(project.getNotes());
+
+		out.putInt(project.getMaterials().size());
+		for (Material material : project.getMaterials()) {
+			out.putInt(Fixed.toInt(material.getMaterialId()));
+			out.putString(material.getMaterialName());
+			out.putInt(Fixed.toInt(material.getNumRequired()));
+			out.putLong(Fixed.toHundredths(material.getCost()));
+		}
+
+		out.putInt(project.getSteps().size());
+		for (Step step : project.getSteps()) {
+			out.putInt(Fixed.toInt(step.getStepId()));
+			out.putString(step.getStepText());
+			out.putInt(Fixed.toInt(step.getStepOrder()));
+		}
+
+		out.putInt(project.getCategories().size());
+		for (Category category : project.getCategories()) {
+			out.putInt(Fixed.toInt(category.getCategoryId()));
+			out.putString(category.getCategoryName());
+		}
+	}
+
+	/**
+	 * A fixed-size buffer in front of a channel. Text is encoded as UTF-8
+	 * directly into the buffer, so nothing is allocated per value except for
+	 * strings longer than the scratch buffer used to measure them.
+	 */
+
+	private static final class Output {
+
+		private final WritableByteChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+		private ByteBuffer scratch = ByteBuffer.allocate(1024);
+		private long bytes;
+
+		private Output(WritableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		long bytes() {
+			return bytes + buffer.position();
+		}
+
+		void putByte(byte value) throws IOException {
+			ensure(1);
+			buffer.put(value);
+		}
+
+		void putInt(int value) throws IOException {
+			ensure(4);
+			buffer.putInt(value);
+		}
+
+		void putLong(long value) throws IOException {
+			ensure(8);
+			buffer.putLong(value);
+		}
+
+		void putBytes(byte[] value) throws IOException {
+			ensure(value.length);
+			buffer.put(value);
+		}
+
+		/**
+		 * Encodes text into the buffer, flushing it as often as it fills.
+		 */
+
+		void putChars(CharSequence text) throws IOException {
+			CharBuffer chars = CharBuffer.wrap(text);
+			encoder.reset();
+			while (true) {
+				CoderResult result = encoder.encode(chars, buffer, true);
+				if (result.isOverflow()) {
+					flush();
+				} else if (result.isUnderflow()) {
+					break;
+				} else {
+					result.throwException();
+				}
+			}
+			while (encoder.flush(buffer).isOverflow()) {
+				flush();
+			}
+		}
+
+		/**
+		 * Writes a string as its UTF-8 length followed by its bytes. The
+		 * string is encoded into the scratch buffer first, to learn its
+		 * length, and the scratch buffer grows to fit the longest string.
+		 */
+
+		void putString(String value) throws IOException {
+			if (Objects.isNull(value)) {
+				putInt(-1);
+				return;
+			}
+
+			int maxBytes = value.length() * 3;
+			if (scratch.capacity() < maxBytes) {
+				scratch = ByteBuffer.allocate(Math.max(maxBytes, scratch.capacity() * 2));
+			}
+			scratch.clear();
+			encoder.reset();
+			CoderResult result = encoder.encode(CharBuffer.wrap(value), scratch, true);
+			if (result.isError()) {
+				result.throwException();
+			}
+			encoder.flush(scratch);
+			scratch.flip();
+
+			putInt(scratch.remaining());
+			while (scratch.hasRemaining()) {
+				ensure(1);
+				int count = Math.min(scratch.remaining(), buffer.remaining());
+				int limit = scratch.limit();
+				scratch.limit(scratch.position() + count);
+				buffer.put(scratch);
+				scratch.limit(limit);
+			}
+		}
+
+		private void ensure(int count) throws IOException {
+			if (buffer.remaining() < count) {
+				flush();
+			}
+		}
+
+		void flush() throws IOException {
+			buffer.flip();
+			bytes += buffer.remaining();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+	}
+
+}
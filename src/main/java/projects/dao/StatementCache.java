@@ -0,0 +1,150 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import provided.util.DaoBase;
+
+/**
+ * Controls the driver's cache of prepared statements for one physical
+ * connection, and reports how often it is hit. The statements themselves are
+ * cached by Connector/J (<code>cachePrepStmts</code>, see
+ * <code>driverProperties</code>): closing a statement it prepared keeps it
+ * prepared on the server, and preparing the same SQL again on the connection
+ * reuses it instead of parsing it again. The cache lives as long as the
+ * physical connection, across every time the connection is borrowed from the
+ * pool.
+ *
+ * Only SQL registered with <code>DaoBase.registerStatement</code> is kept in
+ * the driver's cache. Other SQL, such as an IN list sized to its arguments,
+ * is marked not poolable, so that it is closed on the server when it is
+ * closed and its many variants cannot evict the registered statements.
+ *
+ * The driver keeps a reused statement's fetch size, maximum rows and query
+ * timeout, so they are restored to the values a newly prepared statement has
+ * before the statement is handed out again.
+ *
+ * Hits are counted against a record of the registered SQL prepared on the
+ * connection, evicted in the same least-recently-used order and at the same
+ * size as the driver's cache.
+ *
+ * Only one borrower uses a connection at a time, so the cache is not
+ * thread-safe.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+class StatementCache {
+
+	/**
+	 * The longest SQL, in characters, the driver will cache.
+	 */
+	private static final int MAX_SQL_LENGTH = 4096;
+
+	private final Connection physical;
+	private final Map<String, Boolean> prepared;
+
+	private boolean defaultsKnown;
+	private int defaultFetchSize;
+	private long defaultMaxRows;
+	private int defaultQueryTimeout;
+
+	/**
+	 * @param physical The physical connection statements are prepared on.
+	 * @param maxSize The maximum number of statements the driver keeps
+	 * 					prepared.
+	 */
+
+	StatementCache(Connection physical, int maxSize) {
+		this.physical = physical;
+		this.prepared = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+				return size() > maxSize;
+			}
+
+		};
+	}
+
+	/**
+	 * The connection properties that turn on the driver's statement cache.
+	 *
+	 * @param maxSize The number of statements cached on each connection, or
+	 * 					0 for none.
+	 * @return the properties to open physical connections with.
+	 */
+
+	static Properties driverProperties(int maxSize) {
+		Properties properties = new Properties();
+		properties.setProperty("cachePrepStmts", Boolean.toString(maxSize > 0));
+		if (maxSize > 0) {
+			properties.setProperty("prepStmtCacheSize", Integer.toString(maxSize));
+			properties.setProperty("prepStmtCacheSqlLimit", Integer.toString(MAX_SQL_LENGTH));
+		}
+		return properties;
+	}
+
+	/**
+	 * Prepares a statement on the physical connection. Registered SQL may be
+	 * served from the driver's cache, and is returned to it when the
+	 * statement is closed; other SQL is closed for good.
+	 *
+	 * @param sql The SQL text.
+	 * @param autoGeneratedKeys The generated key setting the statement is
+	 * 					prepared with.
+	 * @return a <code>PreparedStatement</code> that must be closed.
+	 * @throws SQLException if the statement cannot be prepared.
+	 */
+
+	PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+
+		try {
+			if (!DaoBase.isRegisteredStatement(sql) || sql.length() >= MAX_SQL_LENGTH) {
+				statement.setPoolable(false);
+				return statement;
+			}
+
+			DaoBase.recordStatementCacheLookup(sql, prepared.put(sql, Boolean.TRUE) != null);
+			resetSettings(statement);
+			return statement;
+		} catch (SQLException e) {
+			statement.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Restores the settings a borrower may have changed on a statement it
+	 * took from the cache. The first statement prepared on the connection is
+	 * always new, so its settings are the defaults.
+	 */
+
+	private void resetSettings(PreparedStatement statement) throws SQLException {
+		if (!defaultsKnown) {
+			defaultFetchSize = statement.getFetchSize();
+			defaultMaxRows = statement.getLargeMaxRows();
+			defaultQueryTimeout = statement.getQueryTimeout();
+			defaultsKnown = true;
+			return;
+		}
+		if (statement.getFetchSize() != defaultFetchSize) {
+			statement.setFetchSize(defaultFetchSize);
+		}
+		if (statement.getLargeMaxRows() != defaultMaxRows) {
+			statement.setLargeMaxRows(defaultMaxRows);
+		}
+		if (statement.getQueryTimeout() != defaultQueryTimeout) {
+			statement.setQueryTimeout(defaultQueryTimeout);
+		}
+	}
+
+}
@@ -3,10 +3,13 @@
  */
 package projects.entity;
 
+import projects.mapping.MappedEntity;
+
 /**
  * @author Promineo
  *
  */
+@MappedEntity(id = "categoryId")
 public class Category {
   private Integer categoryId;
   private String categoryName;
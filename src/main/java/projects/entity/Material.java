@@ -5,10 +5,13 @@ package projects.entity;
 
 import java.math.BigDecimal;
 
+import projects.mapping.MappedEntity;
+
 /**
  * @author Promineo
  *
  */
+@MappedEntity(id = "materialId")
 public class Material {
   private Integer materialId;
   private Integer projectId;
@@ -4,14 +4,37 @@
 package projects.entity;
 
 import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import projects.mapping.MappedEntity;
 
 /**
+ * A row of the project table with its child rows.
+ *
+ * The project records which of its columns have changed, so that an update only writes those
+ * columns. A new project counts every column as changed, since nothing is known about the row it
+ * will update. The generated row mapper calls {@link #clearChanges()} on every project it reads;
+ * from then on a setter only counts its column as changed if it is given a different value. A
+ * decimal only differs if its numeric value does, so 5 and 5.00 are the same.
+ *
  * @author Promineo
  *
  */
+@MappedEntity(id = "projectId")
 public class Project {
+  /**
+   * The columns of the project table that can be updated. Their ordinals are the indexes of the
+   * columns bound by <code>ProjectParameterBinder</code>.
+   */
+  public enum Column {
+    PROJECT_NAME, ESTIMATED_HOURS, ACTUAL_HOURS, DIFFICULTY, NOTES
+  }
+
   private Integer projectId;
   private String projectName;
   private BigDecimal estimatedHours;
@@ -23,6 +46,8 @@ public class Project {
   private List<Step> steps = new LinkedList<>();
   private List<Category> categories = new LinkedList<>();
 
+  private final Set<Column> changes = EnumSet.allOf(Column.class);
+
   public Integer getProjectId() {
     return projectId;
   }
@@ -36,6 +61,9 @@ public class Project {
   }
 
   public void setProjectName(String projectName) {
+    if(!Objects.equals(this.projectName, projectName)) {
+      changes.add(Column.PROJECT_NAME);
+    }
     this.projectName = projectName;
   }
 
@@ -44,6 +72,9 @@ public class Project {
   }
 
   public void setEstimatedHours(BigDecimal estimatedHours) {
+    if(!sameDecimal(this.estimatedHours, estimatedHours)) {
+      changes.add(Column.ESTIMATED_HOURS);
+    }
     this.estimatedHours = estimatedHours;
   }
 
@@ -52,6 +83,9 @@ public class Project {
   }
 
   public void setActualHours(BigDecimal actualHours) {
+    if(!sameDecimal(this.actualHours, actualHours)) {
+      changes.add(Column.ACTUAL_HOURS);
+    }
     this.actualHours = actualHours;
   }
 
@@ -60,6 +94,9 @@ public class Project {
   }
 
   public void setDifficulty(Integer difficulty) {
+    if(!Objects.equals(this.difficulty, difficulty)) {
+      changes.add(Column.DIFFICULTY);
+    }
     this.difficulty = difficulty;
   }
 
@@ -68,6 +105,9 @@ public class Project {
   }
 
   public void setNotes(String notes) {
+    if(!Objects.equals(this.notes, notes)) {
+      changes.add(Column.NOTES);
+    }
     this.notes = notes;
   }
 
@@ -83,35 +123,59 @@ public class Project {
     return categories;
   }
 
+  /**
+   * @return the columns changed since the project was read, in binding order. Every column, if
+   *         it was not read from the database.
+   */
+  public Set<Column> getChangedColumns() {
+    return Collections.unmodifiableSet(changes);
+  }
+
+  /**
+   * @return true if any column has been changed since the project was read, or it was not read
+   *         from the database.
+   */
+  public boolean hasChanges() {
+    return !changes.isEmpty();
+  }
+
+  /**
+   * Forgets the changes made so far, so that the current values are taken as those in the
+   * database.
+   */
+  public void clearChanges() {
+    changes.clear();
+  }
+
+  /**
+   * Copies the project, so that it can be edited without touching a project that may be shared,
+   * such as one held in a cache. The copy has the same changes as the original, and its own child
+   * lists holding the same child objects.
+   *
+   * @return the copy.
+   */
+  public Project copy() {
+    Project copy = new Project();
+    copy.changes.retainAll(changes);
+    copy.projectId = projectId;
+    copy.projectName = projectName;
+    copy.estimatedHours = estimatedHours;
+    copy.actualHours = actualHours;
+    copy.difficulty = difficulty;
+    copy.notes = notes;
+    copy.materials.addAll(materials);
+    copy.steps.addAll(steps);
+    copy.categories.addAll(categories);
+    return copy;
+  }
+
+  private static boolean sameDecimal(BigDecimal current, BigDecimal value) {
+    return Objects.isNull(current) ? Objects.isNull(value)
+        : Objects.nonNull(value) && current.compareTo(value) == 0;
+  }
+
   @Override
   public String toString() {
-    String result = "";
-    
-    result += "\n   ID=" + projectId;
-    result += "\n   name=" + projectName;
-    result += "\n   estimatedHours=" + estimatedHours;
-    result += "\n   actualHours=" + actualHours;
-    result += "\n   difficulty=" + difficulty;
-    result += "\n   notes=" + notes;
-    
-    result += "\n   Materials:";
-    
-    for(Material material : materials) {
-      result += "\n      " + material;
-    }
-    
-    result += "\n   Steps:";
-    
-    for(Step step : steps) {
-      result += "\n      " + step;
-    }
-    
-    result += "\n   Categories:";
-    
-    for(Category category : categories) {
-      result += "\n      " + category;
-    }
-    
-    return result;
+    return ProjectRenderer.toString(this);
   }
 }
@@ -0,0 +1,408 @@
+package projects.entity;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Reads a project and its children from a single JSON object, in the form written by
+ * {@link ProjectRenderer#renderJson(Project, Appendable)}. IDs are ignored except category IDs, so
+ * the output of a <code>show</code> can be imported as a new project. Categories may be given as
+ * IDs (<code>[1, 2]</code>) or as objects holding a <code>categoryId</code> or a
+ * <code>categoryName</code>. A step without a <code>stepOrder</code> takes its position in the
+ * list, counting from 1. Unknown keys are skipped.
+ *
+ * The parser reads the text in place, creating only the strings and decimals the project holds,
+ * so that an import is not slowed down by building a tree of JSON values first. It is not
+ * thread-safe; use one parser per thread.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+public class ProjectJsonParser {
+  private CharSequence text;
+  private int pos;
+  private final StringBuilder buffer = new StringBuilder(64);
+
+  /**
+   * Parses one project.
+   *
+   * @param json A JSON object, with nothing but whitespace after it.
+   * @return the project, without a project ID.
+   * @throws IllegalArgumentException if the text is not a valid project object.
+   */
+  public Project parse(CharSequence json) {
+    text = json;
+    pos = 0;
+
+    Project project = new Project();
+
+    expect('{');
+    if(!tryConsume('}')) {
+      do {
+        String key = readString();
+        expect(':');
+
+        switch(key) {
+          case "projectName":
+            project.setProjectName(readNullableString());
+            break;
+          case "estimatedHours":
+            project.setEstimatedHours(readDecimal());
+            break;
+          case "actualHours":
+            project.setActualHours(readDecimal());
+            break;
+          case "difficulty":
+            project.setDifficulty(readInteger());
+            break;
+          case "notes":
+            project.setNotes(readNullableString());
+            break;
+          case "materials":
+            readMaterials(project);
+            break;
+          case "steps":
+            readSteps(project);
+            break;
+          case "categories":
+            readCategories(project);
+            break;
+          default:
+            skipValue();
+        }
+      } while(tryConsume(','));
+      expect('}');
+    }
+
+    skipWhitespace();
+    if(pos < text.length()) {
+      throw error("Unexpected text after the project");
+    }
+    if(Objects.isNull(project.getProjectName())) {
+      throw new IllegalArgumentException("The project has no projectName.");
+    }
+
+    return project;
+  }
+
+  private void readMaterials(Project project) {
+    if(readNullOrStart('[')) {
+      return;
+    }
+    if(tryConsume(']')) {
+      return;
+    }
+
+    do {
+      Material material = new Material();
+      expect('{');
+      if(!tryConsume('}')) {
+        do {
+          String key = readString();
+          expect(':');
+
+          switch(key) {
+            case "materialName":
+              material.setMaterialName(readNullableString());
+              break;
+            case "numRequired":
+              material.setNumRequired(readInteger());
+              break;
+            case "cost":
+              material.setCost(readDecimal());
+              break;
+            default:
+              skipValue();
+          }
+        } while(tryConsume(','));
+        expect('}');
+      }
+      project.getMaterials().add(material);
+    } while(tryConsume(','));
+
+    expect(']');
+  }
+
+  private void readSteps(Project project) {
+    if(readNullOrStart('[')) {
+      return;
+    }
+    if(tryConsume(']')) {
+      return;
+    }
+
+    do {
+      Step step = new Step();
+      expect('{');
+      if(!tryConsume('}')) {
+        do {
+          String key = readString();
+          expect(':');
+
+          switch(key) {
+            case "stepText":
+              step.setStepText(readNullableString());
+              break;
+            case "stepOrder":
+              step.setStepOrder(readInteger());
+              break;
+            default:
+              skipValue();
+          }
+        } while(tryConsume(','));
+        expect('}');
+      }
+      if(Objects.isNull(step.getStepOrder())) {
+        step.setStepOrder(project.getSteps().size() + 1);
+      }
+      project.getSteps().add(step);
+    } while(tryConsume(','));
+
+    expect(']');
+  }
+
+  private void readCategories(Project project) {
+    if(readNullOrStart('[')) {
+      return;
+    }
+    if(tryConsume(']')) {
+      return;
+    }
+
+    do {
+      Category category = new Category();
+      skipWhitespace();
+
+      if(peek() == '{') {
+        expect('{');
+        if(!tryConsume('}')) {
+          do {
+            String key = readString();
+            expect(':');
+
+            switch(key) {
+              case "categoryId":
+                category.setCategoryId(readInteger());
+                break;
+              case "categoryName":
+                category.setCategoryName(readNullableString());
+                break;
+              default:
+                skipValue();
+            }
+          } while(tryConsume(','));
+          expect('}');
+        }
+      }
+      else {
+        category.setCategoryId(readInteger());
+      }
+
+      if(Objects.isNull(category.getCategoryId()) && Objects.isNull(category.getCategoryName())) {
+        throw error("A category needs a categoryId or a categoryName");
+      }
+      project.getCategories().add(category);
+    } while(tryConsume(','));
+
+    expect(']');
+  }
+
+  /**
+   * Consumes <code>null</code> and returns true, or consumes the given opening bracket and
+   * returns false.
+   */
+  private boolean readNullOrStart(char open) {
+    if(tryLiteral("null")) {
+      return true;
+    }
+    expect(open);
+    return false;
+  }
+
+  private String readNullableString() {
+    return tryLiteral("null") ? null : readString();
+  }
+
+  private String readString() {
+    expect('"');
+    buffer.setLength(0);
+
+    while(pos < text.length()) {
+      char c = text.charAt(pos++);
+
+      if(c == '"') {
+        return buffer.toString();
+      }
+      if(c != '\\') {
+        buffer.append(c);
+        continue;
+      }
+      if(pos >= text.length()) {
+        break;
+      }
+
+      char escaped = text.charAt(pos++);
+      switch(escaped) {
+        case 'n':
+          buffer.append('\n');
+          break;
+        case 'r':
+          buffer.append('\r');
+          break;
+        case 't':
+          buffer.append('\t');
+          break;
+        case 'b':
+          buffer.append('\b');
+          break;
+        case 'f':
+          buffer.append('\f');
+          break;
+        case 'u':
+          if(pos + 4 > text.length()) {
+            throw error("Incomplete \\u escape");
+          }
+          int code = 0;
+          for(int i = 0; i < 4; i++) {
+            int digit = Character.digit(text.charAt(pos++), 16);
+            if(digit < 0) {
+              throw error("Invalid \\u escape");
+            }
+            code = code * 16 + digit;
+          }
+          buffer.append((char)code);
+          break;
+        default:
+          buffer.append(escaped);
+      }
+    }
+
+    throw error("Unterminated string");
+  }
+
+  private Integer readInteger() {
+    if(tryLiteral("null")) {
+      return null;
+    }
+
+    skipWhitespace();
+    boolean negative = tryConsume('-');
+    int start = pos;
+    long value = 0;
+
+    while(pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+      value = value * 10 + (text.charAt(pos++) - '0');
+      if(value > (long)Integer.MAX_VALUE + 1) {
+        throw error("Integer out of range");
+      }
+    }
+
+    if(pos == start) {
+      throw error("Expected an integer");
+    }
+
+    value = negative ? -value : value;
+    if(value > Integer.MAX_VALUE) {
+      throw error("Integer out of range");
+    }
+    return (int)value;
+  }
+
+  private BigDecimal readDecimal() {
+    if(tryLiteral("null")) {
+      return null;
+    }
+
+    skipWhitespace();
+    int start = pos;
+
+    while(pos < text.length() && "+-.0123456789eE".indexOf(text.charAt(pos)) >= 0) {
+      pos++;
+    }
+
+    try {
+      return new BigDecimal(text.subSequence(start, pos).toString());
+    }
+    catch(NumberFormatException e) {
+      pos = start;
+      throw error("Expected a number");
+    }
+  }
+
+  /**
+   * Skips over any JSON value, for keys the parser does not use.
+   */
+  private void skipValue() {
+    skipWhitespace();
+    char c = peek();
+
+    if(c == '"') {
+      readString();
+    }
+    else if(c == '{' || c == '[') {
+      char close = c == '{' ? '}' : ']';
+      pos++;
+      if(tryConsume(close)) {
+        return;
+      }
+      do {
+        if(c == '{') {
+          readString();
+          expect(':');
+        }
+        skipValue();
+      } while(tryConsume(','));
+      expect(close);
+    }
+    else if(!tryLiteral("null") && !tryLiteral("true") && !tryLiteral("false")) {
+      readDecimal();
+    }
+  }
+
+  private void skipWhitespace() {
+    while(pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+      pos++;
+    }
+  }
+
+  private char peek() {
+    if(pos >= text.length()) {
+      throw error("Unexpected end of text");
+    }
+    return text.charAt(pos);
+  }
+
+  private boolean tryConsume(char c) {
+    skipWhitespace();
+    if(pos < text.length() && text.charAt(pos) == c) {
+      pos++;
+      return true;
+    }
+    return false;
+  }
+
+  private boolean tryLiteral(String literal) {
+    skipWhitespace();
+    int end = pos + literal.length();
+    if(end > text.length()) {
+      return false;
+    }
+    for(int i = 0; i < literal.length(); i++) {
+      if(text.charAt(pos + i) != literal.charAt(i)) {
+        return false;
+      }
+    }
+    pos = end;
+    return true;
+  }
+
+  private void expect(char c) {
+    if(!tryConsume(c)) {
+      throw error("Expected '" + c + "'");
+    }
+  }
+
+  private IllegalArgumentException error(String message) {
+    return new IllegalArgumentException(message + " at column " + (pos + 1) + ".");
+  }
+}
@@ -0,0 +1,320 @@
+package projects.entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Writes projects as text to any {@link Appendable}, such as a <code>StringBuilder</code> or a
+ * buffered <code>Writer</code>. Each value is appended where it goes rather than concatenated into
+ * intermediate strings, so rendering takes time in proportion to the size of the output and,
+ * once a project's decimals have been printed once, allocates nothing of its own.
+ * 
+ * The text is the same as that of the entities' <code>toString</code> methods, which use this
+ * class for projects.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public final class ProjectRenderer {
+  private static final String INDENT = "\n   ";
+  private static final String CHILD_INDENT = "\n      ";
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private ProjectRenderer() {
+  }
+
+  /**
+   * Writes a project's columns followed by its materials, steps and categories, one per line.
+   * 
+   * @param project The project to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void render(Project project, Appendable out) throws IOException {
+    out.append(INDENT).append("ID=");
+    appendInteger(out, project.getProjectId());
+    out.append(INDENT).append("name=").append(project.getProjectName());
+    out.append(INDENT).append("estimatedHours=");
+    appendDecimal(out, project.getEstimatedHours());
+    out.append(INDENT).append("actualHours=");
+    appendDecimal(out, project.getActualHours());
+    out.append(INDENT).append("difficulty=");
+    appendInteger(out, project.getDifficulty());
+    out.append(INDENT).append("notes=").append(project.getNotes());
+
+    out.append(INDENT).append("Materials:");
+    for(Material material : project.getMaterials()) {
+      out.append(CHILD_INDENT);
+      render(material, out);
+    }
+
+    out.append(INDENT).append("Steps:");
+    for(Step step : project.getSteps()) {
+      out.append(CHILD_INDENT);
+      render(step, out);
+    }
+
+    out.append(INDENT).append("Categories:");
+    for(Category category : project.getCategories()) {
+      out.append(CHILD_INDENT);
+      render(category, out);
+    }
+  }
+
+  /**
+   * Writes the ID and name of each project on its own line, indented, or "(none)" if there are no
+   * projects.
+   * 
+   * @param projects The projects to list.
+   * @param out Where to write the list.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void renderList(List<Project> projects, Appendable out) throws IOException {
+    if(projects.isEmpty()) {
+      out.append("   (none)\n");
+    }
+
+    for(Project project : projects) {
+      out.append("   ");
+      appendInteger(out, project.getProjectId());
+      out.append(": ").append(project.getProjectName()).append('\n');
+    }
+  }
+
+  /**
+   * Writes a material on one line, without a line break.
+   * 
+   * @param material The material to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void render(Material material, Appendable out) throws IOException {
+    out.append("ID=");
+    appendInteger(out, material.getMaterialId());
+    out.append(", materialName=").append(material.getMaterialName());
+    out.append(", numRequired=");
+    appendInteger(out, material.getNumRequired());
+    out.append(", cost=");
+    appendDecimal(out, material.getCost());
+  }
+
+  /**
+   * Writes a step on one line, without a line break.
+   * 
+   * @param step The step to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void render(Step step, Appendable out) throws IOException {
+    out.append("ID=");
+    appendInteger(out, step.getStepId());
+    out.append(", stepText=").append(step.getStepText());
+  }
+
+  /**
+   * Writes a category on one line, without a line break.
+   * 
+   * @param category The category to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void render(Category category, Appendable out) throws IOException {
+    out.append("ID=");
+    appendInteger(out, category.getCategoryId());
+    out.append(", categoryName=").append(category.getCategoryName());
+  }
+
+  /**
+   * Writes a project and its children as a single-line JSON object. Decimals are written as JSON
+   * numbers and missing values as <code>null</code>.
+   * 
+   * @param project The project to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void renderJson(Project project, Appendable out) throws IOException {
+    out.append("{\"projectId\":");
+    appendInteger(out, project.getProjectId());
+    out.append(",\"projectName\":");
+    appendJsonString(out, project.getProjectName());
+    out.append(",\"estimatedHours\":");
+    appendDecimal(out, project.getEstimatedHours());
+    out.append(",\"actualHours\":");
+    appendDecimal(out, project.getActualHours());
+    out.append(",\"difficulty\":");
+    appendInteger(out, project.getDifficulty());
+    out.append(",\"notes\":");
+    appendJsonString(out, project.getNotes());
+
+    out.append(",\"materials\":[");
+    boolean first = true;
+    for(Material material : project.getMaterials()) {
+      out.append(first ? "{\"materialId\":" : ",{\"materialId\":");
+      appendInteger(out, material.getMaterialId());
+      out.append(",\"materialName\":");
+      appendJsonString(out, material.getMaterialName());
+      out.append(",\"numRequired\":");
+      appendInteger(out, material.getNumRequired());
+      out.append(",\"cost\":");
+      appendDecimal(out, material.getCost());
+      out.append('}');
+      first = false;
+    }
+
+    out.append("],\"steps\":[");
+    first = true;
+    for(Step step : project.getSteps()) {
+      out.append(first ? "{\"stepId\":" : ",{\"stepId\":");
+      appendInteger(out, step.getStepId());
+      out.append(",\"stepText\":");
+      appendJsonString(out, step.getStepText());
+      out.append(",\"stepOrder\":");
+      appendInteger(out, step.getStepOrder());
+      out.append('}');
+      first = false;
+    }
+
+    out.append("],\"categories\":[");
+    first = true;
+    for(Category category : project.getCategories()) {
+      out.append(first ? "{\"categoryId\":" : ",{\"categoryId\":");
+      appendInteger(out, category.getCategoryId());
+      out.append(",\"categoryName\":");
+      appendJsonString(out, category.getCategoryName());
+      out.append('}');
+      first = false;
+    }
+
+    out.append("]}");
+  }
+
+  /**
+   * Writes a project's ID and name as a JSON object, for lists of projects.
+   * 
+   * @param project The project to write.
+   * @param out Where to write it.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void renderJsonSummary(Project project, Appendable out) throws IOException {
+    out.append("{\"projectId\":");
+    appendInteger(out, project.getProjectId());
+    out.append(",\"projectName\":");
+    appendJsonString(out, project.getProjectName());
+    out.append('}');
+  }
+
+  /**
+   * Writes a string as a quoted JSON string, escaping quotes, backslashes and control characters.
+   * Null is written as <code>null</code>.
+   * 
+   * @param out Where to write the string.
+   * @param value The string to write.
+   * @throws IOException Thrown if <code>out</code> cannot be written to.
+   */
+  public static void appendJsonString(Appendable out, String value) throws IOException {
+    if(Objects.isNull(value)) {
+      out.append("null");
+      return;
+    }
+
+    out.append('"');
+    int start = 0;
+
+    for(int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+
+      if(c != '"' && c != '\\' && c >= ' ') {
+        continue;
+      }
+
+      out.append(value, start, i);
+      start = i + 1;
+
+      switch(c) {
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        default:
+          out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+      }
+    }
+
+    out.append(value, start, value.length()).append('"');
+  }
+
+  /**
+   * Renders a project into a string, sized for the project so that it is built without copying.
+   * 
+   * @param project The project to render.
+   * @return the text of the project.
+   */
+  public static String toString(Project project) {
+    int children =
+        project.getMaterials().size() + project.getSteps().size() + project.getCategories().size();
+    StringBuilder text = new StringBuilder(160 + 64 * children);
+
+    try {
+      render(project, text);
+    }
+    catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Appends an integer digit by digit, so that no string is created for it. Null is written as
+   * "null".
+   */
+  private static void appendInteger(Appendable out, Integer value) throws IOException {
+    if(Objects.isNull(value)) {
+      out.append("null");
+      return;
+    }
+
+    int remaining = value;
+
+    if(remaining == Integer.MIN_VALUE) {
+      out.append("-2147483648");
+      return;
+    }
+
+    if(remaining < 0) {
+      out.append('-');
+      remaining = -remaining;
+    }
+
+    int divisor = 1;
+    while(remaining / divisor >= 10) {
+      divisor *= 10;
+    }
+
+    for(; divisor > 0; divisor /= 10) {
+      out.append((char)('0' + remaining / divisor % 10));
+    }
+  }
+
+  /**
+   * Appends a decimal, or "null". <code>BigDecimal</code> keeps its string once it has been
+   * created, so a decimal is only converted the first time it is written.
+   */
+  private static void appendDecimal(Appendable out, BigDecimal value) throws IOException {
+    out.append(Objects.isNull(value) ? "null" : value.toString());
+  }
+}
@@ -3,10 +3,13 @@
  */
 package projects.entity;
 
+import projects.mapping.MappedEntity;
+
 /**
  * @author Promineo
  *
  */
+@MappedEntity(id = "stepId")
 public class Step {
   private Integer stepId;
   private Integer projectId;
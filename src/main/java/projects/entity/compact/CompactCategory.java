@@ -0,0 +1,35 @@
+package projects.entity.compact;
+
+import projects.entity.Category;
+
+/**
+ * An immutable, compact counterpart of {@link Category}.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public record CompactCategory(int categoryId, String categoryName) {
+
+  /**
+   * @param category The category to copy.
+   * @return a compact copy of the category.
+   */
+  public static CompactCategory from(Category category) {
+    return new CompactCategory(Fixed.toInt(category.getCategoryId()), category.getCategoryName());
+  }
+
+  /**
+   * @return a new mutable <code>Category</code> holding the same values.
+   */
+  public Category toCategory() {
+    Category category = new Category();
+    category.setCategoryId(Fixed.toInteger(categoryId));
+    category.setCategoryName(categoryName);
+    return category;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + Fixed.toInteger(categoryId) + ", categoryName=" + categoryName;
+  }
+}
@@ -0,0 +1,43 @@
+package projects.entity.compact;
+
+import projects.entity.Material;
+
+/**
+ * An immutable, compact counterpart of {@link Material}. The cost is held in hundredths; see
+ * {@link Fixed}.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public record CompactMaterial(int materialId, int projectId, String materialName, int numRequired,
+    long cost) {
+
+  /**
+   * @param material The material to copy.
+   * @return a compact copy of the material.
+   */
+  public static CompactMaterial from(Material material) {
+    return new CompactMaterial(Fixed.toInt(material.getMaterialId()),
+        Fixed.toInt(material.getProjectId()), material.getMaterialName(),
+        Fixed.toInt(material.getNumRequired()), Fixed.toHundredths(material.getCost()));
+  }
+
+  /**
+   * @return a new mutable <code>Material</code> holding the same values.
+   */
+  public Material toMaterial() {
+    Material material = new Material();
+    material.setMaterialId(Fixed.toInteger(materialId));
+    material.setProjectId(Fixed.toInteger(projectId));
+    material.setMaterialName(materialName);
+    material.setNumRequired(Fixed.toInteger(numRequired));
+    material.setCost(Fixed.toDecimal(cost));
+    return material;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + Fixed.toInteger(materialId) + ", materialName=" + materialName
+        + ", numRequired=" + Fixed.toInteger(numRequired) + ", cost=" + Fixed.format(cost);
+  }
+}
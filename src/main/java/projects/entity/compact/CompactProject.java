@@ -0,0 +1,125 @@
+package projects.entity.compact;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/**
+ * An immutable, compact counterpart of {@link Project}, for holding many projects in memory. IDs
+ * and difficulty are primitive ints, hours are held in hundredths (see {@link Fixed}), and the
+ * children are held in immutable lists from <code>List.copyOf</code>, which keep their elements in
+ * a single array. A compact project takes a fraction of the memory of the equivalent
+ * <code>Project</code>, which boxes every number, holds its hours in <code>BigDecimal</code>s and
+ * its children in <code>LinkedList</code>s. The footprint report in the benchmarks module measures
+ * the difference.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public record CompactProject(int projectId, String projectName, long estimatedHours,
+    long actualHours, int difficulty, String notes, List<CompactMaterial> materials,
+    List<CompactStep> steps, List<CompactCategory> categories) {
+
+  /**
+   * Copies the child lists, so that a compact project cannot be changed through a list it was
+   * given.
+   */
+  public CompactProject {
+    materials = List.copyOf(materials);
+    steps = List.copyOf(steps);
+    categories = List.copyOf(categories);
+  }
+
+  /**
+   * @param project The project to copy, with its children.
+   * @return a compact copy of the project.
+   */
+  public static CompactProject from(Project project) {
+    return from(project, new HashMap<>());
+  }
+
+  /**
+   * Copies a project, sharing one <code>CompactCategory</code> per category ID with every other
+   * project copied with the same map. Use this when converting many projects, as most share a
+   * handful of categories.
+   * 
+   * @param project The project to copy, with its children.
+   * @param categories Categories already copied, by ID. New categories are added to it.
+   * @return a compact copy of the project.
+   */
+  public static CompactProject from(Project project, Map<Integer, CompactCategory> categories) {
+    List<CompactMaterial> materials = new ArrayList<>(project.getMaterials().size());
+    for(Material material : project.getMaterials()) {
+      materials.add(CompactMaterial.from(material));
+    }
+
+    List<CompactStep> steps = new ArrayList<>(project.getSteps().size());
+    for(Step step : project.getSteps()) {
+      steps.add(CompactStep.from(step));
+    }
+
+    List<CompactCategory> projectCategories = new ArrayList<>(project.getCategories().size());
+    for(Category category : project.getCategories()) {
+      if(Objects.isNull(category.getCategoryId())) {
+        projectCategories.add(CompactCategory.from(category));
+      }
+      else {
+        projectCategories.add(
+            categories.computeIfAbsent(category.getCategoryId(), id -> CompactCategory.from(category)));
+      }
+    }
+
+    return new CompactProject(Fixed.toInt(project.getProjectId()), project.getProjectName(),
+        Fixed.toHundredths(project.getEstimatedHours()),
+        Fixed.toHundredths(project.getActualHours()), Fixed.toInt(project.getDifficulty()),
+        project.getNotes(), materials, steps, projectCategories);
+  }
+
+  /**
+   * Copies a list of projects, sharing categories between them.
+   * 
+   * @param projects The projects to copy.
+   * @return an immutable list of compact copies, in the same order.
+   */
+  public static List<CompactProject> fromAll(List<Project> projects) {
+    Map<Integer, CompactCategory> categories = new HashMap<>();
+    List<CompactProject> compact = new ArrayList<>(projects.size());
+    for(Project project : projects) {
+      compact.add(from(project, categories));
+    }
+    return List.copyOf(compact);
+  }
+
+  /**
+   * @return a new mutable <code>Project</code> holding the same values and copies of the
+   *         children.
+   */
+  public Project toProject() {
+    Project project = new Project();
+    project.setProjectId(Fixed.toInteger(projectId));
+    project.setProjectName(projectName);
+    project.setEstimatedHours(Fixed.toDecimal(estimatedHours));
+    project.setActualHours(Fixed.toDecimal(actualHours));
+    project.setDifficulty(Fixed.toInteger(difficulty));
+    project.setNotes(notes);
+
+    for(CompactMaterial material : materials) {
+      project.getMaterials().add(material.toMaterial());
+    }
+    for(CompactStep step : steps) {
+      project.getSteps().add(step.toStep());
+    }
+    for(CompactCategory category : categories) {
+      project.getCategories().add(category.toCategory());
+    }
+
+    return project;
+  }
+}
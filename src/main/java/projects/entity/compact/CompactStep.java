@@ -0,0 +1,38 @@
+package projects.entity.compact;
+
+import projects.entity.Step;
+
+/**
+ * An immutable, compact counterpart of {@link Step}.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public record CompactStep(int stepId, int projectId, String stepText, int stepOrder) {
+
+  /**
+   * @param step The step to copy.
+   * @return a compact copy of the step.
+   */
+  public static CompactStep from(Step step) {
+    return new CompactStep(Fixed.toInt(step.getStepId()), Fixed.toInt(step.getProjectId()),
+        step.getStepText(), Fixed.toInt(step.getStepOrder()));
+  }
+
+  /**
+   * @return a new mutable <code>Step</code> holding the same values.
+   */
+  public Step toStep() {
+    Step step = new Step();
+    step.setStepId(Fixed.toInteger(stepId));
+    step.setProjectId(Fixed.toInteger(projectId));
+    step.setStepText(stepText);
+    step.setStepOrder(Fixed.toInteger(stepOrder));
+    return step;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + Fixed.toInteger(stepId) + ", stepText=" + stepText;
+  }
+}
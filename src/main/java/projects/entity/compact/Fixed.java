@@ -0,0 +1,83 @@
+package projects.entity.compact;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Conversions between the nullable boxed values held by the mutable entities and the primitives
+ * held by the compact records. Hours and cost are stored in hundredths, matching the
+ * <code>DECIMAL(7, 2)</code> columns they are read from, so 12.5 hours is held as 1250. A column
+ * that is NULL is held as {@link #NULL_INT} or {@link #NULL_HUNDREDTHS}.
+ * 
+ * @author ProjectGrantwood
+ *
+ */
+public final class Fixed {
+  /**
+   * Stands in for a NULL integer column.
+   */
+  public static final int NULL_INT = Integer.MIN_VALUE;
+
+  /**
+   * Stands in for a NULL decimal column.
+   */
+  public static final long NULL_HUNDREDTHS = Long.MIN_VALUE;
+
+  private static final int SCALE = 2;
+
+  private Fixed() {
+  }
+
+  /**
+   * @param value A decimal, or null.
+   * @return the value in hundredths, rounded half up, or {@link #NULL_HUNDREDTHS} if it is null.
+   * @throws ArithmeticException if the value does not fit in a long.
+   */
+  public static long toHundredths(BigDecimal value) {
+    if(Objects.isNull(value)) {
+      return NULL_HUNDREDTHS;
+    }
+    return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * @param hundredths A value in hundredths, or {@link #NULL_HUNDREDTHS}.
+   * @return the value as a decimal with a scale of 2, or null.
+   */
+  public static BigDecimal toDecimal(long hundredths) {
+    return hundredths == NULL_HUNDREDTHS ? null : BigDecimal.valueOf(hundredths, SCALE);
+  }
+
+  /**
+   * @param value An integer, or null.
+   * @return the value, or {@link #NULL_INT} if it is null.
+   */
+  public static int toInt(Integer value) {
+    return Objects.isNull(value) ? NULL_INT : value;
+  }
+
+  /**
+   * @param value A value, or {@link #NULL_INT}.
+   * @return the value boxed, or null.
+   */
+  public static Integer toInteger(int value) {
+    return value == NULL_INT ? null : value;
+  }
+
+  /**
+   * Formats hundredths the way a <code>BigDecimal</code> with a scale of 2 prints, without
+   * creating one: 1250 as "12.50" and -5 as "-0.05". NULL is formatted as "null".
+   * 
+   * @param hundredths A value in hundredths, or {@link #NULL_HUNDREDTHS}.
+   * @return the formatted value.
+   */
+  public static String format(long hundredths) {
+    if(hundredths == NULL_HUNDREDTHS) {
+      return "null";
+    }
+    long whole = Math.abs(hundredths / 100);
+    long cents = Math.abs(hundredths % 100);
+    return (hundredths < 0 ? "-" : "") + whole + (cents < 10 ? ".0" : ".") + cents;
+  }
+}
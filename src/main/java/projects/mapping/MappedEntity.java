@@ -0,0 +1,34 @@
+package projects.mapping;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity class for which a <code>RowMapper</code> and a
+ * <code>ParameterBinder</code> are generated at compile time by
+ * <code>MappedEntityProcessor</code>. For an entity named <code>Project</code>
+ * the generated classes are <code>ProjectRowMapper</code> and
+ * <code>ProjectParameterBinder</code>, in the same package as the entity.
+ *
+ * Every non-static field of a supported type is mapped to the column with the
+ * snake case form of its name, through the field's getter and setter. Fields
+ * of other types, such as child lists, are ignored.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface MappedEntity {
+
+	/**
+	 * @return the name of the field holding the generated primary key. It is
+	 * mapped when reading rows but never bound as an insert or update
+	 * parameter.
+	 */
+	String id();
+
+}
@@ -0,0 +1,52 @@
+package projects.mapping;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Binds the columns of an entity, other than its primary key, to consecutive
+ * parameters of a <code>PreparedStatement</code>. Implementations are
+ * generated for each <code>@MappedEntity</code> class and call the
+ * driver's typed setters directly.
+ *
+ * @author ProjectGrantwood
+ *
+ * @param <T> The entity type.
+ */
+
+public interface ParameterBinder<T> {
+
+	/**
+	 * @return the names of the bound columns, in the order they are bound.
+	 */
+	List<String> columns();
+
+	/**
+	 * Binds the entity's column values starting at the given parameter
+	 * index. <code>null</code> values are bound as SQL <code>NULL</code>.
+	 *
+	 * @param stmt The <code>PreparedStatement</code> to bind.
+	 * @param index The one-based index of the first parameter to bind.
+	 * @param entity The entity whose values are bound.
+	 * @return the index of the parameter following the last one bound.
+	 * @throws SQLException if a parameter cannot be set.
+	 */
+	int bind(PreparedStatement stmt, int index, T entity) throws SQLException;
+
+	/**
+	 * Binds only some of the entity's column values, in the same order as
+	 * <code>bind</code>, starting at the given parameter index. Used for
+	 * updates that write only the columns that changed.
+	 *
+	 * @param stmt The <code>PreparedStatement</code> to bind.
+	 * @param index The one-based index of the first parameter to bind.
+	 * @param entity The entity whose values are bound.
+	 * @param columns The columns to bind: bit <code>i</code> selects the
+	 * 					column at index <code>i</code> of <code>columns()</code>.
+	 * @return the index of the parameter following the last one bound.
+	 * @throws SQLException if a parameter cannot be set.
+	 */
+	int bind(PreparedStatement stmt, int index, T entity, int columns) throws SQLException;
+
+}
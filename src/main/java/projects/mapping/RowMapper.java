@@ -0,0 +1,30 @@
+package projects.mapping;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Creates an entity from the current row of a <code>ResultSet</code>.
+ * Implementations are generated for each <code>@MappedEntity</code> class and
+ * resolve their column indexes once, when they are constructed from the
+ * result set's metadata, so they can be reused for every row.
+ *
+ * @author ProjectGrantwood
+ *
+ * @param <T> The entity type.
+ */
+
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * Creates an entity from the current row. Columns missing from the result
+	 * set, and <code>NULL</code> values, leave the entity's field unchanged.
+	 *
+	 * @param rs The <code>ResultSet</code>, positioned on the row to map.
+	 * @return the populated entity.
+	 * @throws SQLException if a value cannot be read.
+	 */
+	T map(ResultSet rs) throws SQLException;
+
+}
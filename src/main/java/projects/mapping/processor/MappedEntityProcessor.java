@@ -0,0 +1,373 @@
+package projects.mapping.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a <code>RowMapper</code> and a <code>ParameterBinder</code> for
+ * every class annotated with <code>@MappedEntity</code>.
+ *
+ * The generated code reads and binds each column with the driver's typed
+ * getter or setter, chosen here at compile time from the field's declared
+ * type, and goes through the entity's public getters and setters. Nothing is
+ * looked up reflectively when the application runs.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+@SupportedAnnotationTypes(MappedEntityProcessor.MAPPED_ENTITY)
+public class MappedEntityProcessor extends AbstractProcessor {
+
+	/**
+	 * The fully qualified name of the annotation this processor handles.
+	 */
+	static final String MAPPED_ENTITY = "projects.mapping.MappedEntity";
+
+	// @formatter:off
+	/**
+	 * The column types the processor knows how to read and bind, keyed by the
+	 * field's declared type.
+	 */
+	private static final Map<String, ColumnType> COLUMN_TYPES = Map.ofEntries(
+			Map.entry("int", new ColumnType("Int", "INTEGER", true, true)),
+			Map.entry("java.lang.Integer", new ColumnType("Int", "INTEGER", true, false)),
+			Map.entry("long", new ColumnType("Long", "BIGINT", true, true)),
+			Map.entry("java.lang.Long", new ColumnType("Long", "BIGINT", true, false)),
+			Map.entry("double", new ColumnType("Double", "DOUBLE", true, true)),
+			Map.entry("java.lang.Double", new ColumnType("Double", "DOUBLE", true, false)),
+			Map.entry("boolean", new ColumnType("Boolean", "BOOLEAN", true, true)),
+			Map.entry("java.lang.Boolean", new ColumnType("Boolean", "BOOLEAN", true, false)),
+			Map.entry("java.lang.String", new ColumnType("String", "VARCHAR", false, false)),
+			Map.entry("java.math.BigDecimal", new ColumnType("BigDecimal", "DECIMAL", false, false)),
+			Map.entry("java.time.LocalDate", new ColumnType(null, "DATE", false, false)),
+			Map.entry("java.time.LocalTime", new ColumnType(null, "TIME", false, false)),
+			Map.entry("java.time.LocalDateTime", new ColumnType(null, "TIMESTAMP", false, false))
+	);
+	// @formatter:on
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() != ElementKind.CLASS) {
+					error(element, "@MappedEntity may only be applied to classes.");
+					continue;
+				}
+				generate((TypeElement) element);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Collects the mapped fields of an entity and writes its mapper and
+	 * binder.
+	 */
+
+	private void generate(TypeElement entity) {
+		String idField = idFieldOf(entity);
+		List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(entity));
+		List<MappedField> fields = new ArrayList<>();
+
+		for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+			if (field.getModifiers().contains(Modifier.STATIC)) {
+				continue;
+			}
+			ColumnType type = COLUMN_TYPES.get(field.asType().toString());
+			if (type == null) {
+				continue;
+			}
+			String name = field.getSimpleName().toString();
+			String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			String getter = (field.asType().toString().equals("boolean") ? "is" : "get") + suffix;
+			String setter = "set" + suffix;
+			if (!hasMethod(methods, getter, 0) || !hasMethod(methods, setter, 1)) {
+				error(field, "Mapped field " + name + " needs a public " + getter + "() and " + setter + "(value).");
+				continue;
+			}
+			fields.add(new MappedField(name, camelCaseToSnakeCase(name), field.asType().toString(), type, getter,
+					setter, name.equals(idField)));
+		}
+
+		if (fields.stream().filter(field -> !field.id).count() > Integer.SIZE - 1) {
+			error(entity, "@MappedEntity supports at most " + (Integer.SIZE - 1) + " columns besides the id.");
+			return;
+		}
+
+		boolean clearsChanges = hasMethod(methods, "clearChanges", 0);
+		String packageName = ((PackageElement) entity.getEnclosingElement()).getQualifiedName().toString();
+		String entityName = entity.getSimpleName().toString();
+
+		write(packageName, entityName + "RowMapper", entity, rowMapperSource(packageName, entityName, fields, clearsChanges));
+		write(packageName, entityName + "ParameterBinder", entity, parameterBinderSource(packageName, entityName, fields));
+	}
+
+	/**
+	 * Reads the <code>id</code> element of the entity's annotation.
+	 */
+
+	private String idFieldOf(TypeElement entity) {
+		return entity.getAnnotationMirrors().stream()
+				.filter(mirror -> mirror.getAnnotationType().toString().equals(MAPPED_ENTITY))
+				.flatMap(mirror -> mirror.getElementValues().entrySet().stream())
+				.filter(entry -> entry.getKey().getSimpleName().contentEquals("id"))
+				.map(entry -> entry.getValue().getValue().toString())
+				.findFirst()
+				.orElse("");
+	}
+
+	private boolean hasMethod(List<ExecutableElement> methods, String name, int parameterCount) {
+		return methods.stream().anyMatch(method -> method.getSimpleName().contentEquals(name)
+				&& method.getParameters().size() == parameterCount
+				&& method.getModifiers().contains(Modifier.PUBLIC));
+	}
+
+	/**
+	 * Builds the source of <code>&lt;Entity&gt;RowMapper</code>. Column indexes
+	 * are resolved from the metadata in the constructor; a field whose column
+	 * is absent keeps index zero and is skipped by <code>map</code>.
+	 */
+
+	private String rowMapperSource(String packageName, String entityName, List<MappedField> fields,
+			boolean clearsChanges) {
+		StringBuilder src = new StringBuilder();
+		src.append("package ").append(packageName).append(";\n\n");
+		src.append("import java.sql.ResultSet;\n");
+		src.append("import java.sql.ResultSetMetaData;\n");
+		src.append("import java.sql.SQLException;\n");
+		src.append("import java.util.Locale;\n\n");
+		src.append("import javax.annotation.processing.Generated;\n\n");
+		src.append("import projects.mapping.RowMapper;\n\n");
+		src.append("@Generated(\"").append(getClass().getName()).append("\")\n");
+		src.append("public final class ").append(entityName).append("RowMapper implements RowMapper<")
+				.append(entityName).append("> {\n\n");
+
+		for (MappedField field : fields) {
+			src.append("\tprivate final int ").append(field.name).append("Column;\n");
+		}
+
+		src.append("\n\tpublic ").append(entityName).append("RowMapper(ResultSetMetaData meta) throws SQLException {\n");
+		for (MappedField field : fields) {
+			src.append("\t\tint ").append(field.name).append("Column = 0;\n");
+		}
+		src.append("\t\tfor (int col = meta.getColumnCount(); col >= 1; col--) {\n");
+		src.append("\t\t\tswitch (meta.getColumnLabel(col).toLowerCase(Locale.ROOT)) {\n");
+		for (MappedField field : fields) {
+			src.append("\t\t\t\tcase \"").append(field.column).append("\":\n");
+			src.append("\t\t\t\t\t").append(field.name).append("Column = col;\n");
+			src.append("\t\t\t\t\tbreak;\n");
+		}
+		src.append("\t\t\t\tdefault:\n");
+		src.append("\t\t\t\t\tbreak;\n");
+		src.append("\t\t\t}\n");
+		src.append("\t\t}\n");
+		for (MappedField field : fields) {
+			src.append("\t\tthis.").append(field.name).append("Column = ").append(field.name).append("Column;\n");
+		}
+		src.append("\t}\n\n");
+
+		src.append("\t@Override\n");
+		src.append("\tpublic ").append(entityName).append(" map(ResultSet rs) throws SQLException {\n");
+		src.append("\t\t").append(entityName).append(" entity = new ").append(entityName).append("();\n");
+		for (MappedField field : fields) {
+			String column = field.name + "Column";
+			src.append("\t\tif (").append(column).append(" != 0) {\n");
+			if (field.type.primitive) {
+				String local = field.type.primitiveOnly ? field.javaType : primitiveOf(field.type.accessor);
+				src.append("\t\t\t").append(local).append(" value = rs.get").append(field.type.accessor).append("(")
+						.append(column).append(");\n");
+				src.append("\t\t\tif (!rs.wasNull()) {\n");
+			} else if (field.type.accessor != null) {
+				src.append("\t\t\t").append(field.javaType).append(" value = rs.get").append(field.type.accessor)
+						.append("(").append(column).append(");\n");
+				src.append("\t\t\tif (value != null) {\n");
+			} else {
+				src.append("\t\t\t").append(field.javaType).append(" value = rs.getObject(").append(column)
+						.append(", ").append(field.javaType).append(".class);\n");
+				src.append("\t\t\tif (value != null) {\n");
+			}
+			src.append("\t\t\t\tentity.").append(field.setter).append("(value);\n");
+			src.append("\t\t\t}\n");
+			src.append("\t\t}\n");
+		}
+		if (clearsChanges) {
+			src.append("\t\tentity.clearChanges();\n");
+		}
+		src.append("\t\treturn entity;\n");
+		src.append("\t}\n\n");
+		src.append("}\n");
+		return src.toString();
+	}
+
+	/**
+	 * Builds the source of <code>&lt;Entity&gt;ParameterBinder</code>, which
+	 * binds every mapped field except the id in declaration order.
+	 */
+
+	private String parameterBinderSource(String packageName, String entityName, List<MappedField> fields) {
+		StringBuilder src = new StringBuilder();
+		src.append("package ").append(packageName).append(";\n\n");
+		src.append("import java.sql.PreparedStatement;\n");
+		src.append("import java.sql.SQLException;\n");
+		src.append("import java.sql.Types;\n");
+		src.append("import java.util.List;\n\n");
+		src.append("import javax.annotation.processing.Generated;\n\n");
+		src.append("import projects.mapping.ParameterBinder;\n\n");
+		src.append("@Generated(\"").append(getClass().getName()).append("\")\n");
+		src.append("public final class ").append(entityName).append("ParameterBinder implements ParameterBinder<")
+				.append(entityName).append("> {\n\n");
+		src.append("\tpublic static final ").append(entityName).append("ParameterBinder INSTANCE = new ")
+				.append(entityName).append("ParameterBinder();\n\n");
+
+		src.append("\tprivate static final List<String> COLUMNS = List.of(");
+		boolean first = true;
+		for (MappedField field : fields) {
+			if (field.id) {
+				continue;
+			}
+			src.append(first ? "" : ", ").append('"').append(field.column).append('"');
+			first = false;
+		}
+		src.append(");\n\n");
+
+		src.append("\tprivate ").append(entityName).append("ParameterBinder() {\n");
+		src.append("\t}\n\n");
+
+		src.append("\t@Override\n");
+		src.append("\tpublic List<String> columns() {\n");
+		src.append("\t\treturn COLUMNS;\n");
+		src.append("\t}\n\n");
+
+		src.append("\t@Override\n");
+		src.append("\tpublic int bind(PreparedStatement stmt, int index, ").append(entityName)
+				.append(" entity) throws SQLException {\n");
+		for (MappedField field : fields) {
+			if (!field.id) {
+				bindFieldSource(src, field, "\t\t");
+			}
+		}
+		src.append("\t\treturn index;\n");
+		src.append("\t}\n\n");
+
+		src.append("\t@Override\n");
+		src.append("\tpublic int bind(PreparedStatement stmt, int index, ").append(entityName)
+				.append(" entity, int columns) throws SQLException {\n");
+		int bit = 0;
+		for (MappedField field : fields) {
+			if (field.id) {
+				continue;
+			}
+			src.append("\t\tif ((columns & ").append(1 << bit++).append(") != 0) {\n");
+			bindFieldSource(src, field, "\t\t\t");
+			src.append("\t\t}\n");
+		}
+		src.append("\t\treturn index;\n");
+		src.append("\t}\n\n");
+		src.append("}\n");
+		return src.toString();
+	}
+
+	/**
+	 * Appends the statements that bind one field to the next parameter,
+	 * binding <code>null</code> as SQL <code>NULL</code>.
+	 */
+
+	private static void bindFieldSource(StringBuilder src, MappedField field, String indent) {
+		String setCall = field.type.accessor == null ? "setObject" : "set" + field.type.accessor;
+		if (field.type.primitiveOnly) {
+			src.append(indent).append("stmt.").append(setCall).append("(index++, entity.").append(field.getter)
+					.append("());\n");
+			return;
+		}
+		src.append(indent).append(field.javaType).append(' ').append(field.name).append(" = entity.")
+				.append(field.getter).append("();\n");
+		src.append(indent).append("if (").append(field.name).append(" == null) {\n");
+		src.append(indent).append("\tstmt.setNull(index++, Types.").append(field.type.sqlType).append(");\n");
+		src.append(indent).append("} else {\n");
+		src.append(indent).append("\tstmt.").append(setCall).append("(index++, ").append(field.name).append(");\n");
+		src.append(indent).append("}\n");
+	}
+
+	private void write(String packageName, String className, TypeElement origin, String source) {
+		try (Writer writer = processingEnv.getFiler().createSourceFile(packageName + "." + className, origin)
+				.openWriter()) {
+			writer.write(source);
+		} catch (IOException e) {
+			error(origin, "Unable to write " + className + ": " + e.getMessage());
+		}
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+
+	private static String primitiveOf(String accessor) {
+		return accessor.toLowerCase();
+	}
+
+	/**
+	 * Converts a camel case field name (rowInsertTime) to a snake case column
+	 * name (row_insert_time), the same way <code>DaoBase</code> does.
+	 */
+
+	private static String camelCaseToSnakeCase(String identifier) {
+		StringBuilder nameBuilder = new StringBuilder();
+		for (char ch : identifier.toCharArray()) {
+			if (Character.isUpperCase(ch)) {
+				nameBuilder.append('_').append(Character.toLowerCase(ch));
+			} else {
+				nameBuilder.append(ch);
+			}
+		}
+		return nameBuilder.toString();
+	}
+
+	/**
+	 * How a column of a given Java type is read and bound.
+	 *
+	 * @param accessor The suffix of the typed <code>ResultSet</code> getter and
+	 * 					<code>PreparedStatement</code> setter, or <code>null</code>
+	 * 					to use <code>getObject</code>/<code>setObject</code>.
+	 * @param sqlType The <code>java.sql.Types</code> constant used for nulls.
+	 * @param primitive Whether the getter returns a primitive and nulls must
+	 * 					be detected with <code>wasNull</code>.
+	 * @param primitiveOnly Whether the field itself is primitive and can never
+	 * 					be null.
+	 */
+
+	private record ColumnType(String accessor, String sqlType, boolean primitive, boolean primitiveOnly) {
+	}
+
+	/**
+	 * A field of the entity that maps to a column.
+	 */
+
+	private record MappedField(String name, String column, String javaType, ColumnType type, String getter,
+			String setter, boolean id) {
+	}
+
+}
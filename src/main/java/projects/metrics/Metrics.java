@@ -0,0 +1,77 @@
+package projects.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The registry of every <code>Timer</code> in the application. Each timer is
+ * created on first use and registered with the platform MBean server as
+ * <code>projects:type=Timer,name=&lt;name&gt;</code>, where it can be read
+ * with JConsole, VisualVM or any other JMX client.
+ *
+ * Recording is on by default and can be switched off with the
+ * <code>projects.metrics.enabled</code> system property, in which case
+ * instrumented code skips timing altogether.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public final class Metrics {
+
+	/**
+	 * Whether instrumented code records its timings.
+	 */
+	public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("projects.metrics.enabled", "true"));
+
+	private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+	private Metrics() {
+	}
+
+	/**
+	 * Returns the timer with the given name, creating and registering it if it
+	 * does not exist yet. Callers should look a timer up once and keep it in
+	 * a field rather than on every call.
+	 *
+	 * @param name A dotted name, such as <code>dao.fetchProjectById</code>.
+	 * @return the <code>Timer</code>.
+	 */
+
+	public static Timer timer(String name) {
+		return TIMERS.computeIfAbsent(name, Metrics::register);
+	}
+
+	/**
+	 * @return every timer, ordered by name.
+	 */
+
+	public static List<Timer> getTimers() {
+		List<Timer> timers = new ArrayList<>(TIMERS.values());
+		timers.sort(Comparator.comparing(Timer::getName));
+		return timers;
+	}
+
+	private static Timer register(String name) {
+		Timer timer = new Timer(name);
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName("projects:type=Timer,name=" + ObjectName.quote(name));
+			if (!server.isRegistered(objectName)) {
+				server.registerMBean(timer, objectName);
+			}
+		} catch (JMException e) {
+			// The timer still records; it is just not visible over JMX.
+		}
+		return timer;
+	}
+
+}
@@ -0,0 +1,175 @@
+package projects.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts calls to an operation and records their latencies in a histogram.
+ * Every count, including each histogram bucket, is a <code>LongAdder</code>,
+ * so threads recording at the same time update separate cells instead of
+ * contending on one counter. Recording a call costs a handful of nanoseconds
+ * and never allocates or blocks.
+ *
+ * Latencies are counted in log-linear buckets, 8 per power of two, so a
+ * reported percentile is at most 12.5% above the true value. Latencies above
+ * about 18 minutes are counted in the last bucket.
+ *
+ * Reads are not atomic with respect to recording: a snapshot taken while
+ * calls are being recorded may be off by the calls in flight.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class Timer implements TimerMXBean {
+
+	private static final int SUB_BUCKETS = 8;
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+	/**
+	 * The highest bit of the largest latency with its own bucket, about 18
+	 * minutes in nanoseconds.
+	 */
+	private static final int MAX_BIT = 40;
+
+	private final String name;
+	private final LongAdder[] buckets = new LongAdder[LINEAR_LIMIT + (MAX_BIT - 3) * SUB_BUCKETS];
+	private final LongAdder count = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+	private volatile long resetAt = System.nanoTime();
+
+	Timer(String name) {
+		this.name = name;
+		for (int i = 0; i < buckets.length; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @return the name the timer is registered under.
+	 */
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Records a call that started at <code>startNanos</code> and has just
+	 * finished.
+	 *
+	 * @param startNanos The <code>System.nanoTime()</code> the call started
+	 * 					at.
+	 * @param succeeded Whether the call succeeded.
+	 */
+
+	public void record(long startNanos, boolean succeeded) {
+		long nanos = Math.max(0, System.nanoTime() - startNanos);
+		buckets[indexOf(nanos)].increment();
+		count.increment();
+		totalNanos.add(nanos);
+		maxNanos.accumulate(nanos);
+		if (!succeeded) {
+			errors.increment();
+		}
+	}
+
+	@Override
+	public long getCount() {
+		return count.sum();
+	}
+
+	@Override
+	public long getErrorCount() {
+		return errors.sum();
+	}
+
+	@Override
+	public double getThroughput() {
+		double seconds = (System.nanoTime() - resetAt) / 1e9;
+		return seconds <= 0 ? 0 : getCount() / seconds;
+	}
+
+	@Override
+	public double getMeanMicros() {
+		long calls = count.sum();
+		return calls == 0 ? 0 : totalNanos.sum() / 1000.0 / calls;
+	}
+
+	@Override
+	public double getMaxMicros() {
+		return maxNanos.get() / 1000.0;
+	}
+
+	@Override
+	public double get50thPercentileMicros() {
+		return percentile(0.50) / 1000.0;
+	}
+
+	@Override
+	public double get99thPercentileMicros() {
+		return percentile(0.99) / 1000.0;
+	}
+
+	@Override
+	public double get999thPercentileMicros() {
+		return percentile(0.999) / 1000.0;
+	}
+
+	@Override
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		count.reset();
+		errors.reset();
+		totalNanos.reset();
+		maxNanos.reset();
+		resetAt = System.nanoTime();
+	}
+
+	/**
+	 * @return the upper bound, in nanoseconds, of the bucket holding the
+	 * given fraction of calls, capped at the maximum.
+	 */
+
+	private long percentile(double fraction) {
+		long[] counts = new long[buckets.length];
+		long total = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(fraction * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(upperBoundOf(i), maxNanos.get());
+			}
+		}
+		return maxNanos.get();
+	}
+
+	private int indexOf(long nanos) {
+		if (nanos < LINEAR_LIMIT) {
+			return (int) nanos;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(nanos) - 3;
+		int index = LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+		return Math.min(index, buckets.length - 1);
+	}
+
+	private static long upperBoundOf(int index) {
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+		int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+		long sub = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+
+}
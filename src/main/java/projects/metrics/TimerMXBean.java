@@ -0,0 +1,45 @@
+package projects.metrics;
+
+/**
+ * The JMX view of a <code>Timer</code>. Latencies are reported in
+ * microseconds, and percentiles as the upper bound of the histogram bucket
+ * they fall in.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public interface TimerMXBean {
+
+	/**
+	 * @return the number of calls recorded since the timer was created or
+	 * reset.
+	 */
+	long getCount();
+
+	/**
+	 * @return the number of those calls that failed.
+	 */
+	long getErrorCount();
+
+	/**
+	 * @return calls per second since the timer was created or reset.
+	 */
+	double getThroughput();
+
+	double getMeanMicros();
+
+	double getMaxMicros();
+
+	double get50thPercentileMicros();
+
+	double get99thPercentileMicros();
+
+	double get999thPercentileMicros();
+
+	/**
+	 * Discards everything recorded so far.
+	 */
+	void reset();
+
+}
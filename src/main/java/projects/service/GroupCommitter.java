@@ -0,0 +1,243 @@
+package projects.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import projects.dao.ProjectDao;
+import projects.dao.ProjectDao.GroupOutcome;
+import projects.dao.ProjectDao.GroupedWrite;
+import projects.exception.DbException;
+
+/**
+ * Gathers writes submitted concurrently by many threads and commits them
+ * together, so that they share one connection, one transaction and one
+ * commit.
+ *
+ * A single committer thread takes the first pending write, then keeps
+ * collecting writes until either <code>maxBatchSize</code> have been gathered
+ * or <code>windowNanos</code> have passed, and hands the group to
+ * <code>ProjectDao.executeGroup</code>. Each caller waits only for its own
+ * write. A write that fails inside a group, or every write of a group whose
+ * commit fails, is retried once in a transaction of its own before its
+ * caller sees the failure.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+class GroupCommitter implements AutoCloseable {
+
+	/**
+	 * Used to run each group of writes.
+	 */
+	private final ProjectDao projectDao;
+	/**
+	 * The largest number of writes committed together.
+	 */
+	private final int maxBatchSize;
+	/**
+	 * How long to keep gathering writes after the first one arrives.
+	 */
+	private final long windowNanos;
+	/**
+	 * Writes waiting for the committer thread.
+	 */
+	private final LinkedBlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+	/**
+	 * Runs <code>commitLoop</code>.
+	 */
+	private final Thread committer;
+
+	private volatile boolean closed;
+
+	/**
+	 * Creates the committer and starts its thread.
+	 *
+	 * @param projectDao Used to run each group of writes.
+	 * @param windowMillis How long to keep gathering writes after the first
+	 * 					one arrives.
+	 * @param maxBatchSize The largest number of writes committed together.
+	 */
+
+	GroupCommitter(ProjectDao projectDao, long windowMillis, int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1, was " + maxBatchSize);
+		}
+		this.projectDao = projectDao;
+		this.maxBatchSize = maxBatchSize;
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.committer = new Thread(this::commitLoop, "projects-group-committer");
+		this.committer.setDaemon(true);
+		this.committer.start();
+	}
+
+	/**
+	 * Queues a write and waits for the group it joins to commit.
+	 *
+	 * @param <R> The type of the write's result.
+	 * @param write The write to run.
+	 * @return the write's result.
+	 * @throws DbException if the write failed, both in its group and when
+	 * retried on its own.
+	 */
+
+	<R> R execute(GroupedWrite<R> write) {
+		if (closed) {
+			throw new DbException("Group commit has been shut down.");
+		}
+		PendingWrite<R> pending = new PendingWrite<>(write);
+		queue.add(pending);
+		if (closed) {
+			/* close() may have drained the queue before this write was added. */
+			failQueued();
+		}
+		try {
+			return pending.future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new DbException(e.getCause());
+		}
+	}
+
+	/**
+	 * Stops the committer thread. Writes still queued are failed.
+	 */
+
+	@Override
+	public void close() {
+		closed = true;
+		committer.interrupt();
+		failQueued();
+	}
+
+	/**
+	 * Fails every write still in the queue. Called by <code>close</code>, by
+	 * a caller that queued its write after the committer was closed, and by
+	 * the committer thread as it exits.
+	 */
+
+	private void failQueued() {
+		PendingWrite<?> pending;
+		while ((pending = queue.poll()) != null) {
+			pending.future.completeExceptionally(new DbException("Group commit has been shut down."));
+		}
+	}
+
+	/**
+	 * Repeatedly gathers a group of writes and commits it. Whichever way the
+	 * loop ends, writes queued since the last group are failed.
+	 */
+
+	private void commitLoop() {
+		try {
+			gatherAndCommit();
+		} finally {
+			failQueued();
+		}
+	}
+
+	private void gatherAndCommit() {
+		List<PendingWrite<?>> group = new ArrayList<>(maxBatchSize);
+		while (!closed) {
+			try {
+				group.add(queue.take());
+				long deadline = System.nanoTime() + windowNanos;
+				while (group.size() < maxBatchSize) {
+					if (queue.drainTo(group, maxBatchSize - group.size()) > 0) {
+						continue;
+					}
+					long remaining = deadline - System.nanoTime();
+					PendingWrite<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+					if (next == null) {
+						break;
+					}
+					group.add(next);
+				}
+				commit(group);
+			} catch (InterruptedException e) {
+				group.forEach(pending -> pending.future
+						.completeExceptionally(new DbException("Group commit has been shut down.")));
+				return;
+			} finally {
+				group.clear();
+			}
+		}
+	}
+
+	/**
+	 * Runs a group in one transaction and completes each caller. Writes that
+	 * fail are retried on their own.
+	 */
+
+	private void commit(List<PendingWrite<?>> group) {
+		List<GroupedWrite<?>> writes = new ArrayList<>(group.size());
+		group.forEach(pending -> writes.add(pending.write));
+
+		List<GroupOutcome> outcomes;
+		try {
+			outcomes = projectDao.executeGroup(writes);
+		} catch (RuntimeException e) {
+			/* The commit failed, so nothing in the group took effect. */
+			group.forEach(this::retryAlone);
+			return;
+		}
+
+		for (int i = 0; i < group.size(); i++) {
+			PendingWrite<?> pending = group.get(i);
+			GroupOutcome outcome = outcomes.get(i);
+			if (outcome.succeeded()) {
+				pending.complete(outcome.result());
+			} else {
+				retryAlone(pending);
+			}
+		}
+	}
+
+	/**
+	 * Runs a single write in its own transaction and completes its caller
+	 * with the result or the failure.
+	 */
+
+	private void retryAlone(PendingWrite<?> pending) {
+		try {
+			GroupOutcome outcome = projectDao.executeGroup(List.of(pending.write)).get(0);
+			if (outcome.succeeded()) {
+				pending.complete(outcome.result());
+			} else {
+				pending.future.completeExceptionally(outcome.failure() instanceof DbException
+						? outcome.failure()
+						: new DbException(outcome.failure()));
+			}
+		} catch (RuntimeException e) {
+			pending.future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * A queued write and the future its caller is waiting on.
+	 *
+	 * @param <R> The type of the write's result.
+	 */
+
+	private static final class PendingWrite<R> {
+
+		private final GroupedWrite<R> write;
+		private final CompletableFuture<R> future = new CompletableFuture<>();
+
+		private PendingWrite(GroupedWrite<R> write) {
+			this.write = write;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void complete(Object result) {
+			future.complete((R) result);
+		}
+	}
+
+}
@@ -0,0 +1,252 @@
+package projects.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+import projects.entity.Project;
+
+/**
+ * A size-bounded, concurrent read-through cache of fully loaded
+ * <code>Project</code> graphs, keyed by project ID.
+ *
+ * Entries are spread over independently locked shards. Each shard uses a
+ * segmented LRU policy: a project enters a small probationary segment when it
+ * is loaded and is promoted to the protected segment on its next hit. When the
+ * protected segment is full its least recently used entry is demoted back to
+ * probation, and eviction always takes the least recently used probationary
+ * entry. Projects read once are therefore evicted before projects read
+ * repeatedly, and a scan over many projects cannot flush the popular ones.
+ *
+ * Cached instances are shared between callers and must not be modified.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class ProjectCache {
+
+	/**
+	 * The share of each shard's capacity given to the protected segment.
+	 */
+	private static final double PROTECTED_RATIO = 0.8;
+
+	private final Shard[] shards;
+	private final int shardMask;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @param maxSize The maximum number of projects held, at least 1.
+	 */
+
+	public ProjectCache(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cache size must be at least 1, was " + maxSize);
+		}
+		/* Keep shards large enough that each has a useful protected segment. */
+		int shardCount = Math.min(16, Integer.highestOneBit(Math.max(1, maxSize / 64)));
+		this.shards = new Shard[shardCount];
+		this.shardMask = shardCount - 1;
+		for (int i = 0; i < shardCount; i++) {
+			int capacity = maxSize / shardCount + (i < maxSize % shardCount ? 1 : 0);
+			shards[i] = new Shard(capacity);
+		}
+	}
+
+	/**
+	 * Returns the cached project with the given ID, loading and caching it on
+	 * a miss. The loader runs outside any lock. If the project is invalidated
+	 * while it is being loaded, the loaded value is returned but not cached.
+	 *
+	 * @param projectId The ID of the project.
+	 * @param loader Loads the project on a miss. It may return
+	 * 					<code>null</code>, which is not cached.
+	 * @return the project, or <code>null</code> if the loader returned
+	 * <code>null</code>.
+	 */
+
+	public Project get(int projectId, IntFunction<Project> loader) {
+		Shard shard = shardFor(projectId);
+		long generation;
+
+		synchronized (shard) {
+			Project cached = shard.lookup(projectId);
+			if (Objects.nonNull(cached)) {
+				hits.increment();
+				return cached;
+			}
+			generation = shard.generation;
+		}
+
+		misses.increment();
+		Project loaded = loader.apply(projectId);
+
+		if (Objects.nonNull(loaded)) {
+			synchronized (shard) {
+				if (shard.generation == generation) {
+					shard.admit(projectId, loaded);
+				}
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Removes a project from the cache. Loads of the same shard that are in
+	 * progress will not be cached.
+	 *
+	 * @param projectId The ID of the project.
+	 */
+
+	public void invalidate(int projectId) {
+		Shard shard = shardFor(projectId);
+		synchronized (shard) {
+			shard.generation++;
+			shard.probation.remove(projectId);
+			shard.protectedSegment.remove(projectId);
+		}
+	}
+
+	/**
+	 * Removes every project from the cache.
+	 */
+
+	public void invalidateAll() {
+		for (Shard shard : shards) {
+			synchronized (shard) {
+				shard.generation++;
+				shard.probation.clear();
+				shard.protectedSegment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @return a snapshot of the cache's hit, miss and eviction counts and its
+	 * current size.
+	 */
+
+	public Stats stats() {
+		int size = 0;
+		for (Shard shard : shards) {
+			synchronized (shard) {
+				size += shard.probation.size() + shard.protectedSegment.size();
+			}
+		}
+		return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+	}
+
+	private Shard shardFor(int projectId) {
+		int h = projectId * 0x9E3779B9;
+		return shards[(h ^ (h >>> 16)) & shardMask];
+	}
+
+	/**
+	 * Cache statistics at a point in time.
+	 *
+	 * @param hits Lookups answered from the cache.
+	 * @param misses Lookups that called the loader.
+	 * @param evictions Entries removed to make room.
+	 * @param size Entries currently cached.
+	 */
+
+	public record Stats(long hits, long misses, long evictions, int size) {
+
+		/**
+		 * @return the fraction of lookups answered from the cache, or 0 if
+		 * there have been none.
+		 */
+
+		public double hitRate() {
+			long total = hits + misses;
+			return total == 0 ? 0 : (double) hits / total;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, size=%d", hits, misses,
+					hitRate() * 100, evictions, size);
+		}
+	}
+
+	/**
+	 * One independently locked part of the cache. Both segments are
+	 * access-ordered, so iteration starts at the least recently used entry.
+	 */
+
+	private final class Shard {
+
+		private final int protectedCapacity;
+		private final int probationCapacity;
+		private final LinkedHashMap<Integer, Project> probation = new LinkedHashMap<>(16, 0.75f, true);
+		private final LinkedHashMap<Integer, Project> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+		private long generation;
+
+		private Shard(int capacity) {
+			this.protectedCapacity = (int) (capacity * PROTECTED_RATIO);
+			this.probationCapacity = Math.max(1, capacity - protectedCapacity);
+		}
+
+		/**
+		 * Finds a project, promoting it to the protected segment if it was on
+		 * probation.
+		 */
+
+		private Project lookup(int projectId) {
+			Project project = protectedSegment.get(projectId);
+			if (Objects.nonNull(project)) {
+				return project;
+			}
+			project = probation.remove(projectId);
+			if (Objects.isNull(project)) {
+				return null;
+			}
+			if (protectedCapacity == 0) {
+				probation.put(projectId, project);
+				return project;
+			}
+			protectedSegment.put(projectId, project);
+			if (protectedSegment.size() > protectedCapacity) {
+				Map.Entry<Integer, Project> demoted = removeEldest(protectedSegment);
+				probation.put(demoted.getKey(), demoted.getValue());
+				trimProbation();
+			}
+			return project;
+		}
+
+		/**
+		 * Adds a newly loaded project to the probationary segment.
+		 */
+
+		private void admit(int projectId, Project project) {
+			if (protectedSegment.containsKey(projectId)) {
+				protectedSegment.put(projectId, project);
+				return;
+			}
+			probation.put(projectId, project);
+			trimProbation();
+		}
+
+		private void trimProbation() {
+			while (probation.size() > probationCapacity) {
+				removeEldest(probation);
+				evictions.increment();
+			}
+		}
+
+		private Map.Entry<Integer, Project> removeEldest(LinkedHashMap<Integer, Project> segment) {
+			Iterator<Map.Entry<Integer, Project>> eldest = segment.entrySet().iterator();
+			Map.Entry<Integer, Project> entry = eldest.next();
+			Map.Entry<Integer, Project> copy = Map.entry(entry.getKey(), entry.getValue());
+			eldest.remove();
+			return copy;
+		}
+	}
+
+}
@@ -1,18 +1,83 @@
 package projects.service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.Stream;
 
+import projects.dao.BulkImporter;
+import projects.dao.DbConnection;
+import projects.dao.InstrumentedProjectDao;
 import projects.dao.ProjectDao;
+import projects.dao.ProjectExporter;
+import projects.entity.Material;
 import projects.entity.Project;
+import projects.entity.Step;
 import projects.exception.DbException;
+import projects.metrics.Metrics;
+import provided.util.DaoBase;
 
 public class ProjectService {
 	
 	/**
-	 * Allows access to the Data Access Layer of the application.
+	 * Allows access to the Data Access Layer of the application. Timed
+	 * through <code>InstrumentedProjectDao</code> unless metrics are
+	 * disabled.
 	 */
-	private ProjectDao projectDao = new ProjectDao();
+	private ProjectDao projectDao = Metrics.ENABLED ? new InstrumentedProjectDao() : new ProjectDao();
+	
+	/**
+	 * Commits concurrent writes together when group commit is enabled;
+	 * otherwise <code>null</code>, and each write commits on its own.
+	 */
+	private volatile GroupCommitter groupCommitter;
+	
+	/**
+	 * Holds recently read project graphs, or <code>null</code> if caching is
+	 * disabled. Sized by the <code>projects.cache.maxSize</code> system
+	 * property; a size of 0 disables it.
+	 */
+	private final ProjectCache projectCache;
+	
+	/**
+	 * Creates a service. The project cache holds up to
+	 * <code>projects.cache.maxSize</code> projects (1000 by default, 0 to
+	 * disable it). Group commit is enabled when the
+	 * <code>projects.groupCommit</code> system property is <code>true</code>,
+	 * using the <code>projects.groupCommit.windowMillis</code> and
+	 * <code>projects.groupCommit.maxBatchSize</code> properties.
+	 */
+	
+	public ProjectService() {
+		int cacheSize = Integer.getInteger("projects.cache.maxSize", 1000);
+		projectCache = cacheSize > 0 ? new ProjectCache(cacheSize) : null;
+		
+		if (Boolean.getBoolean("projects.groupCommit")) {
+			enableGroupCommit(Long.getLong("projects.groupCommit.windowMillis", 2L),
+					Integer.getInteger("projects.groupCommit.maxBatchSize", 64));
+		}
+	}
+	
+	/**
+	 * Switches <code>addProject</code> and <code>modifyProjectDetails</code>
+	 * to group commit: writes made by concurrent callers within the window
+	 * are committed together in one transaction, up to the batch size. Each
+	 * caller still receives its own result or exception.
+	 * 
+	 * @param windowMillis How long to gather writes before committing.
+	 * @param maxBatchSize The largest number of writes committed together.
+	 */
+	
+	public synchronized void enableGroupCommit(long windowMillis, int maxBatchSize) {
+		if (Objects.nonNull(groupCommitter)) {
+			groupCommitter.close();
+		}
+		groupCommitter = new GroupCommitter(projectDao, windowMillis, maxBatchSize);
+	}
 
 	
 	/**
@@ -24,23 +89,136 @@ public class ProjectService {
 	 * @return the <code>Project</code> instance.
 	 */
 	public Project addProject(Project project) {
+		if (Objects.nonNull(groupCommitter)) {
+			return groupCommitter.execute(ProjectDao.insertProjectWrite(project));
+		}
 		return projectDao.insertProject(project);
 	}
 	
 	/**
-	 * Obtains all rows of the project table. Does so as a call to 
-	 * <code>ProjectDao.fetchAllObjects</code>.
+	 * Passes a list of <code>Project</code> instances to 
+	 * <code>ProjectDao.insertProjects</code>, which inserts them in batches
+	 * within a single transaction.
+	 * 
+	 * @param projects the <code>Project</code> instances to be added to the
+	 * table.
+	 * @return the same instances, with their IDs set.
+	 */
+	public List<Project> addProjects(List<Project> projects) {
+		return projectDao.insertProjects(projects);
+	}
+	
+	/**
+	 * Appends steps to an existing project. Does so as a call to
+	 * <code>ProjectDao.addSteps</code>, which numbers the steps after the
+	 * project's last step and inserts them in one batch.
+	 * 
+	 * @param projectId The ID of the project to append to.
+	 * @param steps The steps to add.
+	 * @return the same steps, with their IDs and orders set.
+	 * @throws DbException if the project does not exist.
+	 */
+	public List<Step> addSteps(Integer projectId, List<Step> steps) {
+		try {
+			return projectDao.addSteps(projectId, steps);
+		} finally {
+			invalidate(projectId);
+		}
+	}
+	
+	/**
+	 * Adds materials to an existing project. Does so as a call to
+	 * <code>ProjectDao.addMaterials</code>, which inserts them in one batch.
+	 * 
+	 * @param projectId The ID of the project to add to.
+	 * @param materials The materials to add.
+	 * @return the same materials, with their IDs set.
+	 * @throws DbException if the project does not exist.
+	 */
+	public List<Material> addMaterials(Integer projectId, List<Material> materials) {
+		try {
+			return projectDao.addMaterials(projectId, materials);
+		} finally {
+			invalidate(projectId);
+		}
+	}
+	
+	/**
+	 * Imports projects with their materials, steps and categories from JSON
+	 * lines, through a <code>BulkImporter</code> configured by the
+	 * <code>projects.import.*</code> system properties.
+	 * 
+	 * @param in JSON lines, one project per line.
+	 * @param progress Where progress is reported, or <code>null</code>.
+	 * @return the totals of the import.
+	 * @throws IOException if the input cannot be read.
+	 */
+	public BulkImporter.Result importProjects(BufferedReader in, PrintStream progress) throws IOException {
+		return new BulkImporter(projectDao).importFrom(in, progress);
+	}
+	
+	/**
+	 * Exports every project with its materials, steps and categories, reading
+	 * them through server-side cursors so that the export runs in a small,
+	 * fixed amount of memory. See <code>ProjectExporter</code>.
+	 * 
+	 * @param target A file path, or <code>-</code> for standard output.
+	 * @param format JSON lines or the compact binary format.
+	 * @param gzip Whether to compress the output with gzip.
+	 * @param progress Where progress is reported, or <code>null</code>.
+	 * @return the totals of the export.
+	 * @throws IOException if the output cannot be written.
+	 */
+	public ProjectExporter.Result exportProjects(String target, ProjectExporter.Format format, boolean gzip,
+			PrintStream progress) throws IOException {
+		return new ProjectExporter(projectDao).export(target, format, gzip, progress);
+	}
+	
+	/**
+	 * Streams all rows of the project table, without their notes, in project
+	 * ID order. Does so as a call to <code>ProjectDao.streamAllProjects</code>.
+	 * The stream holds a connection until it is closed.
+	 * 
+	 * @return A <code>Stream</code> of <code>Project</code>, which must be
+	 * closed.
+	 */
+
+	public Stream<Project> streamAllProjects() {
+		return projectDao.streamAllProjects();
+	}
+	
+	/**
+	 * Obtains the page of projects following the given project ID. Does so as
+	 * a call to <code>ProjectDao.fetchProjectsAfter</code>.
 	 * 
-	 * @return A <code>List</code> of <code>Project</code>.
+	 * @param afterId The last project ID of the previous page, or
+	 * <code>null</code> for the first page.
+	 * @param pageSize The maximum number of projects on the page.
+	 * @return A <code>List</code> of <code>Project</code>, in ID order.
 	 */
 
-	public List<Project> fetchAllProjects() {
-		return projectDao.fetchAllObjects();
+	public List<Project> fetchProjectsAfter(Integer afterId, int pageSize) {
+		return projectDao.fetchProjectsAfter(afterId, pageSize);
+	}
+	
+	/**
+	 * Obtains the page of projects preceding the given project ID. Does so as
+	 * a call to <code>ProjectDao.fetchProjectsBefore</code>.
+	 * 
+	 * @param beforeId The first project ID of the following page.
+	 * @param pageSize The maximum number of projects on the page.
+	 * @return A <code>List</code> of <code>Project</code>, in ID order.
+	 */
+
+	public List<Project> fetchProjectsBefore(Integer beforeId, int pageSize) {
+		return projectDao.fetchProjectsBefore(beforeId, pageSize);
 	}
 	
 	/**
 	 * Obtains one row of the project table. Does so as a call to 
-	 * <code>ProjectDao.fetchProjectById</code>.
+	 * <code>ProjectDao.fetchProjectById</code>, unless the project is already
+	 * in the cache. The returned instance may be shared with other callers
+	 * and must not be modified.
 	 * 
 	 * @param projectId A numerical ID associated with the project to be
 	 * fetched.
@@ -49,25 +227,71 @@ public class ProjectService {
 	 */
 
 	public Project fetchProjectById(Integer projectId) {
-		return projectDao.fetchProjectById(projectId).orElseThrow(
-			() -> new NoSuchElementException(
+		Project project = Objects.nonNull(projectCache) && Objects.nonNull(projectId)
+				? projectCache.get(projectId, id -> projectDao.fetchProjectById(id).orElse(null))
+				: projectDao.fetchProjectById(projectId).orElse(null);
+		if (Objects.isNull(project)) {
+			throw new NoSuchElementException(
 				"Project with project ID=" + projectId
 				+ " does not exist."
-			)
-		);
+			);
+		}
+		return project;
+	}
+	
+	/**
+	 * The largest number of pooled connections <code>fetchProjectById</code>
+	 * holds at once. Does so as a call to
+	 * <code>ProjectDao.getConnectionsPerFetch</code>.
+	 * 
+	 * @return the number of connections borrowed per fetch.
+	 */
+
+	public int getConnectionsPerFetch() {
+		return projectDao.getConnectionsPerFetch();
+	}
+	
+	/**
+	 * Obtains several projects, each with its materials, steps and
+	 * categories. Does so as a call to
+	 * <code>ProjectDao.fetchProjectsByIds</code>, which loads the child rows
+	 * of many projects with a few chunked queries.
+	 * 
+	 * @param projectIds The IDs of the projects to fetch.
+	 * @return A <code>List</code> of <code>Project</code>, in the order the
+	 * IDs were given. IDs that do not exist are omitted.
+	 */
+
+	public List<Project> fetchProjectsByIds(Collection<Integer> projectIds) {
+		return projectDao.fetchProjectsByIds(projectIds);
 	}
 	
 	/**
 	 * Updates a row of the project table. Does so as a call to
-	 * <code>ProjectDao.modifyProjectDetails</code>.
+	 * <code>ProjectDao.modifyProjectDetails</code>, which writes only the
+	 * columns changed on <code>updatedProject</code>. A project read from
+	 * the database and left unchanged is not sent back at all, only checked
+	 * to still exist; a project built with <code>new Project()</code> writes
+	 * every column.
 	 * 
 	 * @return A <code>boolean</code> representing if the transaction was 
 	 * successful.
-	 * @throws DbException
+	 * @throws DbException if the project does not exist.
 	 */
 
 	public boolean modifyProjectDetails(Project updatedProject) {
-		boolean success = projectDao.modifyProjectDetails(updatedProject);
+		boolean success;
+		if (!updatedProject.hasChanges()) {
+			success = projectDao.modifyProjectDetails(updatedProject);
+		} else {
+			try {
+				success = Objects.nonNull(groupCommitter)
+						? groupCommitter.execute(ProjectDao.modifyProjectDetailsWrite(updatedProject))
+						: projectDao.modifyProjectDetails(updatedProject);
+			} finally {
+				invalidate(updatedProject.getProjectId());
+			}
+		}
 		if (!success) {
 			throw new DbException("Project with ID=" + updatedProject.getProjectId() + " does not exist.");
 		}
@@ -83,10 +307,64 @@ public class ProjectService {
 	 */
 
 	public void deleteProject(Integer projectId) {
-		boolean success = projectDao.deleteProject(projectId);
+		boolean success;
+		try {
+			success = projectDao.deleteProject(projectId);
+		} finally {
+			invalidate(projectId);
+		}
 		if (!success) {
 			throw new DbException("\nThere is no row associated with id " + projectId + " in the project table, delete operation unsuccessful.");
 		}
 	}
+	
+	/**
+	 * Reloads the in-memory copy of the category table. Does so as a call to
+	 * <code>ProjectDao.refreshCategories</code>.
+	 */
+
+	public void refreshCategories() {
+		projectDao.refreshCategories();
+	}
+	
+	/**
+	 * @return the hit, miss and eviction counts of the project cache, or
+	 * <code>null</code> if caching is disabled.
+	 */
+
+	public ProjectCache.Stats getCacheStats() {
+		return Objects.isNull(projectCache) ? null : projectCache.stats();
+	}
+	
+	/**
+	 * @return the prepared statement cache hits and misses of every statement
+	 * run so far, ordered by statement name.
+	 */
+
+	public List<DaoBase.StatementStats> getStatementStats() {
+		return DaoBase.getStatementStats();
+	}
+	
+	/**
+	 * Removes a project from the cache after it has been written.
+	 */
+
+	private void invalidate(Integer projectId) {
+		if (Objects.nonNull(projectCache) && Objects.nonNull(projectId)) {
+			projectCache.invalidate(projectId);
+		}
+	}
+	
+	/**
+	 * Releases the pooled database connections. Called once when the
+	 * application exits.
+	 */
+
+	public void shutdown() {
+		if (Objects.nonNull(groupCommitter)) {
+			groupCommitter.close();
+		}
+		DbConnection.shutdown();
+	}
 
 }
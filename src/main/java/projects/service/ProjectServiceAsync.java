@@ -0,0 +1,232 @@
+package projects.service;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import projects.dao.DbConnection;
+import projects.entity.Project;
+
+/**
+ * A non-blocking facade over <code>ProjectService</code>. Each operation is
+ * run on a separate task and its result, or the exception it threw, is
+ * delivered through a <code>CompletableFuture</code>.
+ *
+ * Tasks run on a virtual-thread-per-task executor when the JVM provides one
+ * (Java 21 and later), so any number of operations may be in flight without
+ * a platform thread each. On older JVMs a fixed pool of daemon threads is
+ * used instead. Either way, the operations in flight hold at most
+ * <code>maxConcurrency</code> pooled connections at once: each takes one
+ * permit per connection it borrows at the same time, which for
+ * <code>fetchProjectById</code> with parallel child loading is four. The
+ * rest wait for permits rather than for a pooled connection, so with the
+ * default concurrency they only reach the pool's borrow timeout if
+ * connections are also borrowed outside this facade.
+ *
+ * @author ProjectGrantwood
+ *
+ */
+
+public class ProjectServiceAsync implements AutoCloseable {
+
+	private final ProjectService projectService;
+	private final ExecutorService executor;
+	private final Semaphore permits;
+	private final int maxConcurrency;
+
+	/**
+	 * Creates a facade whose concurrency matches the size of the shared
+	 * connection pool.
+	 *
+	 * @param projectService The service the operations are delegated to.
+	 */
+
+	public ProjectServiceAsync(ProjectService projectService) {
+		this(projectService, DbConnection.getMaxPoolSize());
+	}
+
+	/**
+	 * @param projectService The service the operations are delegated to.
+	 * @param maxConcurrency The largest number of pooled connections the
+	 * 					operations in flight hold at once.
+	 */
+
+	public ProjectServiceAsync(ProjectService projectService, int maxConcurrency) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Concurrency must be at least 1, was " + maxConcurrency);
+		}
+		this.projectService = projectService;
+		this.maxConcurrency = maxConcurrency;
+		// Fair, so that a fetch waiting for several permits is not overtaken
+		// indefinitely by operations that need only one.
+		this.permits = new Semaphore(maxConcurrency, true);
+		this.executor = newExecutor(maxConcurrency);
+	}
+
+	/**
+	 * @see ProjectService#addProject(Project)
+	 */
+
+	public CompletableFuture<Project> addProject(Project project) {
+		return submit(() -> projectService.addProject(project));
+	}
+
+	/**
+	 * @see ProjectService#addProjects(List)
+	 */
+
+	public CompletableFuture<List<Project>> addProjects(List<Project> projects) {
+		return submit(() -> projectService.addProjects(projects));
+	}
+
+	/**
+	 * Passes every project, without its notes, to <code>action</code> in
+	 * project ID order, on the task's thread, as the rows are read. The
+	 * returned future completes with the number of projects once the stream
+	 * has been closed.
+	 *
+	 * @see ProjectService#streamAllProjects()
+	 */
+
+	public CompletableFuture<Long> forEachProject(Consumer<? super Project> action) {
+		return submit(() -> {
+			long count = 0;
+			try (Stream<Project> projects = projectService.streamAllProjects()) {
+				Iterator<Project> rows = projects.iterator();
+				while (rows.hasNext()) {
+					action.accept(rows.next());
+					count++;
+				}
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * @see ProjectService#fetchProjectsAfter(Integer, int)
+	 */
+
+	public CompletableFuture<List<Project>> fetchProjectsAfter(Integer afterId, int pageSize) {
+		return submit(() -> projectService.fetchProjectsAfter(afterId, pageSize));
+	}
+
+	/**
+	 * @see ProjectService#fetchProjectsBefore(Integer, int)
+	 */
+
+	public CompletableFuture<List<Project>> fetchProjectsBefore(Integer beforeId, int pageSize) {
+		return submit(() -> projectService.fetchProjectsBefore(beforeId, pageSize));
+	}
+
+	/**
+	 * The returned future completes exceptionally with a
+	 * <code>NoSuchElementException</code> if the project does not exist.
+	 *
+	 * @see ProjectService#fetchProjectById(Integer)
+	 */
+
+	public CompletableFuture<Project> fetchProjectById(Integer projectId) {
+		return submit(projectService.getConnectionsPerFetch(), () -> projectService.fetchProjectById(projectId));
+	}
+
+	/**
+	 * @see ProjectService#fetchProjectsByIds(Collection)
+	 */
+
+	public CompletableFuture<List<Project>> fetchProjectsByIds(Collection<Integer> projectIds) {
+		return submit(() -> projectService.fetchProjectsByIds(projectIds));
+	}
+
+	/**
+	 * @see ProjectService#modifyProjectDetails(Project)
+	 */
+
+	public CompletableFuture<Boolean> modifyProjectDetails(Project updatedProject) {
+		return submit(() -> projectService.modifyProjectDetails(updatedProject));
+	}
+
+	/**
+	 * @see ProjectService#deleteProject(Integer)
+	 */
+
+	public CompletableFuture<Void> deleteProject(Integer projectId) {
+		return submit(() -> {
+			projectService.deleteProject(projectId);
+			return null;
+		});
+	}
+
+	/**
+	 * Stops accepting new operations. Operations already submitted still run.
+	 * The underlying <code>ProjectService</code> is not shut down.
+	 */
+
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Runs an operation that borrows one connection at a time on the
+	 * executor once a permit is available.
+	 */
+
+	private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+		return submit(1, operation);
+	}
+
+	/**
+	 * Runs an operation on the executor once it holds a permit for each
+	 * connection it borrows at the same time. An operation needing more
+	 * permits than there are takes them all.
+	 */
+
+	private <T> CompletableFuture<T> submit(int connections, Supplier<T> operation) {
+		int needed = Math.min(connections, maxConcurrency);
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				permits.acquire(needed);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CompletionException(e);
+			}
+			try {
+				return operation.get();
+			} finally {
+				permits.release(needed);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Returns a virtual-thread-per-task executor if the running JVM has one,
+	 * otherwise a fixed pool of <code>poolSize</code> daemon threads. The
+	 * virtual thread executor is looked up reflectively so that the code
+	 * still compiles for older releases.
+	 */
+
+	private static ExecutorService newExecutor(int poolSize) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger count = new AtomicInteger();
+			ThreadFactory factory = runnable -> {
+				Thread thread = new Thread(runnable, "projects-async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			};
+			return Executors.newFixedThreadPool(poolSize, factory);
+		}
+	}
+
+}
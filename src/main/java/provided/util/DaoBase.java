@@ -3,12 +3,16 @@
  */
 package provided.util;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
@@ -16,7 +20,14 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class contains utility methods for the DAO class.
@@ -25,6 +36,192 @@ import java.util.Objects;
  *
  */
 public abstract class DaoBase {
+  /**
+   * Mapping plans built by {@link #mappingPlan(ResultSet, Class)}, keyed by entity class and then
+   * by the column labels of the result set. Plans are immutable, so they are shared by all threads.
+   */
+  private static final Map<Class<?>, Map<String, MappingPlan<?>>> MAPPING_PLANS =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Every statement registered with {@link #registerStatement(String, String)}, keyed by its SQL.
+   */
+  private static final Map<String, NamedStatement> STATEMENTS = new ConcurrentHashMap<>();
+
+  /**
+   * The connection wait last reported on each thread by {@link #recordConnectionWait(long)}.
+   */
+  private static final ThreadLocal<long[]> CONNECTION_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+  /**
+   * The transaction event in progress on each thread, if transaction events are being recorded.
+   */
+  private static final ThreadLocal<TransactionEvent> TRANSACTION_EVENT = new ThreadLocal<>();
+
+  /**
+   * This registers a SQL statement under a name. The SQL is built once, when the DAO class is
+   * loaded, and the returned object is passed to
+   * {@link #prepareStatement(Connection, NamedStatement)} each time the statement is run. Because
+   * the SQL text is always identical, pooled connections can reuse their prepared statement for it.
+   * The name is used when reporting statement cache statistics.
+   * 
+   * @param name A unique, descriptive name, such as "project.insert".
+   * @param sql The SQL text.
+   * @return The registered statement.
+   */
+  protected static NamedStatement registerStatement(String name, String sql) {
+    NamedStatement statement = new NamedStatement(name, sql);
+    NamedStatement existing = STATEMENTS.putIfAbsent(sql, statement);
+
+    if(Objects.nonNull(existing) && !existing.name().equals(name)) {
+      throw new DaoException(
+          "SQL is already registered as " + existing.name() + ", cannot register as " + name);
+    }
+
+    return Objects.isNull(existing) ? statement : existing;
+  }
+
+  /**
+   * Prepares a registered statement. If the connection keeps a statement cache, an already prepared
+   * statement is reused.
+   * 
+   * @param conn The connection
+   * @param statement The registered statement
+   * @return The prepared statement. It must be closed by the caller.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected PreparedStatement prepareStatement(Connection conn, NamedStatement statement)
+      throws SQLException {
+    return trace(conn.prepareStatement(statement.sql()), statement.name(), statement.sql());
+  }
+
+  /**
+   * Prepares a registered statement with the given generated key setting.
+   * 
+   * @param conn The connection
+   * @param statement The registered statement
+   * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or
+   *        {@link Statement#NO_GENERATED_KEYS}
+   * @return The prepared statement. It must be closed by the caller.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected PreparedStatement prepareStatement(Connection conn, NamedStatement statement,
+      int autoGeneratedKeys) throws SQLException {
+    return trace(conn.prepareStatement(statement.sql(), autoGeneratedKeys), statement.name(),
+        statement.sql());
+  }
+
+  /**
+   * Prepares SQL that is built on each call, such as a statement with an IN list sized to its
+   * arguments, and so is not registered. The name identifies the statement in trace events.
+   * 
+   * @param conn The connection
+   * @param name A descriptive name, such as "project.selectByIds".
+   * @param sql The SQL text.
+   * @return The prepared statement. It must be closed by the caller.
+   * @throws SQLException Thrown if an error occurs.
+   */
+  protected PreparedStatement prepareStatement(Connection conn, String name, String sql)
+      throws SQLException {
+    return trace(conn.prepareStatement(sql), name, sql);
+  }
+
+  /**
+   * Wraps a statement so that it is recorded as a {@link QueryEvent}, if that event is enabled in a
+   * running flight recording. Otherwise the statement is returned as it is.
+   */
+  private PreparedStatement trace(PreparedStatement stmt, String name, String sql) {
+    QueryEvent event = new QueryEvent();
+
+    if(!event.isEnabled()) {
+      return stmt;
+    }
+
+    long[] wait = CONNECTION_WAIT.get();
+    event.statementName = name;
+    event.sql = sql;
+    event.connectionWait = wait[0];
+    wait[0] = 0;
+    event.begin();
+
+    return TracedStatement.wrap(stmt, event);
+  }
+
+  /**
+   * This tells whether {@link QueryEvent}s are being recorded, so that the connection pool knows
+   * to report connection waits with {@link #recordConnectionWait(long)}.
+   * 
+   * @return True if the event is enabled in a running flight recording
+   */
+  public static boolean isQueryTracingEnabled() {
+    return new QueryEvent().isEnabled();
+  }
+
+  /**
+   * This records how long the current thread waited to obtain a connection. It is called by the
+   * connection pool while query events are being recorded, and the wait is reported by the first
+   * {@link QueryEvent} on that connection.
+   * 
+   * @param nanos The time spent waiting, in nanoseconds
+   */
+  public static void recordConnectionWait(long nanos) {
+    CONNECTION_WAIT.get()[0] = nanos;
+  }
+
+  /**
+   * This forgets the connection wait recorded on the current thread. It is called when a
+   * connection is returned to the pool, so that a wait not reported by any statement on that
+   * connection is not reported by an unrelated later one.
+   */
+  public static void clearConnectionWait() {
+    CONNECTION_WAIT.get()[0] = 0;
+  }
+
+  /**
+   * This tells whether SQL was registered with {@link #registerStatement(String, String)}. Only
+   * registered SQL is kept in the per-connection statement caches; SQL built on each call, such as
+   * an IN list sized to its arguments, would fill a cache and evict the registered statements.
+   * 
+   * @param sql The SQL text
+   * @return True if the SQL is registered
+   */
+  public static boolean isRegisteredStatement(String sql) {
+    return STATEMENTS.containsKey(sql);
+  }
+
+  /**
+   * This records a lookup of a registered statement in a per-connection prepared statement cache.
+   * It is called by the connection pool, and feeds the statistics returned by
+   * {@link #getStatementStats()}. SQL that is not registered is ignored.
+   * 
+   * @param sql The SQL text that was prepared
+   * @param hit True if an already prepared statement was reused
+   */
+  public static void recordStatementCacheLookup(String sql, boolean hit) {
+    NamedStatement statement = STATEMENTS.get(sql);
+
+    if(Objects.nonNull(statement)) {
+      (hit ? statement.hits : statement.misses).increment();
+    }
+  }
+
+  /**
+   * Returns the statement cache statistics of every registered statement, ordered by name.
+   * 
+   * @return The statistics
+   */
+  public static List<StatementStats> getStatementStats() {
+    List<StatementStats> stats = new ArrayList<>();
+
+    for(NamedStatement statement : STATEMENTS.values()) {
+      stats.add(new StatementStats(statement.name(), statement.sql(), statement.hits.sum(),
+          statement.misses.sum()));
+    }
+
+    stats.sort((a, b) -> a.name().compareTo(b.name()));
+    return stats;
+  }
+
   /**
    * This starts a MySQL transaction. Normally MySQL starts a transaction before every request and
    * commits it after each request. By turning auto-commit off, the transaction is only committed
@@ -35,6 +232,13 @@ public abstract class DaoBase {
    */
   protected void startTransaction(Connection conn) throws SQLException {
     conn.setAutoCommit(false);
+
+    TransactionEvent event = new TransactionEvent();
+
+    if(event.isEnabled()) {
+      event.begin();
+      TRANSACTION_EVENT.set(event);
+    }
   }
 
   /**
@@ -45,6 +249,7 @@ public abstract class DaoBase {
    */
   protected void commitTransaction(Connection conn) throws SQLException {
     conn.commit();
+    endTransactionEvent(true);
   }
 
   /**
@@ -54,7 +259,25 @@ public abstract class DaoBase {
    * @throws SQLException Thrown if an error occurs rolling back the transaction.
    */
   protected void rollbackTransaction(Connection conn) throws SQLException {
-    conn.rollback();
+    try {
+      conn.rollback();
+    }
+    finally {
+      endTransactionEvent(false);
+    }
+  }
+
+  /**
+   * Commits the transaction event in progress on this thread, if there is one.
+   */
+  private void endTransactionEvent(boolean committed) {
+    TransactionEvent event = TRANSACTION_EVENT.get();
+
+    if(Objects.nonNull(event)) {
+      TRANSACTION_EVENT.remove();
+      event.committed = committed;
+      event.commit();
+    }
   }
 
   /**
@@ -112,7 +335,7 @@ public abstract class DaoBase {
    * @param classType The class type
    * @return A java.sql.Types value
    */
-  private int convertJavaClassToSqlType(Class<?> classType) {
+  int convertJavaClassToSqlType(Class<?> classType) {
     if(Integer.class.equals(classType)) {
       return Types.INTEGER;
     }
@@ -173,13 +396,17 @@ public abstract class DaoBase {
    * result set that needs to be parsed for the ID. It's not really any easier than this approach
    * but should be closer to database-agnostic.
    * 
+   * LAST_INSERT_ID() is tracked per connection, so it is selected without a FROM clause. Selecting
+   * it from the table would return one row for every row in the table.
+   * 
    * @param conn The connection
-   * @param table The name of the table on which to get the last inserted primary key value
+   * @param table The name of the table on which to get the last inserted primary key value. It is
+   *        not used by the query, since MySQL tracks the value per connection.
    * @return The primary key value
    * @throws SQLException Thrown if an error occurs
    */
   protected Integer getLastInsertId(Connection conn, String table) throws SQLException {
-    String sql = String.format("SELECT LAST_INSERT_ID() FROM %s", table);
+    String sql = "SELECT LAST_INSERT_ID()";
 
     try(Statement stmt = conn.createStatement()) {
       try(ResultSet rs = stmt.executeQuery(sql)) {
@@ -205,13 +432,21 @@ public abstract class DaoBase {
    * <li>The value is assigned to the field in the object.</li>
    * </ol>
    * 
-   * Example: if a query returns values for a recipe, a Recipe object is returned. So:
+   * The reflection is only done once for each combination of class and result set columns, by
+   * {@link #mappingPlan(ResultSet, Class)}, which returns it as a {@link MappingPlan}. The plan is
+   * resolved once for a result set and passed in for each row, so that extracting a row only reads
+   * the column values and stores them.
+   * 
+   * Example: if a query returns values for a recipe, a Recipe object is returned for each row. So:
    * 
    * <pre>
    * String sql = "SELECT * from recipe";
    * ResultSet rs = getResultSetSomehow();
+   * MappingPlan&lt;Recipe&gt; plan = mappingPlan(rs, Recipe.class);
    * 
-   * Recipe recipe = extract(rs, Recipe.class);
+   * while(rs.next()) {
+   *   recipes.add(extract(rs, plan));
+   * }
    * </pre>
    * 
    * Note: if the Java field does not exist in the result set, the value of the field is left
@@ -227,62 +462,42 @@ public abstract class DaoBase {
    * @param <T> The Generic for the type of object to create and return.
    * @param rs The result set in which to extract values. The result set must be positioned on the
    *        correct row by the caller.
-   * @param classType The actual class type of the object to create.
+   * @param plan The plan returned by {@link #mappingPlan(ResultSet, Class)} for this result set.
    * @return A populated class.
    */
-  protected <T> T extract(ResultSet rs, Class<T> classType) {
-    try {
-      /* Obtain the constructor and create an object of the correct type. */
-      Constructor<T> con = classType.getConstructor();
-      T obj = con.newInstance();
-
-      /* Get the list of fields and loop through them. */
-      for(Field field : classType.getDeclaredFields()) {
-        String colName = camelCaseToSnakeCase(field.getName());
-        Class<?> fieldType = field.getType();
-
-        /*
-         * Set the field accessible flag which means that we can populate even private fields
-         * without using the setter.
-         */
-        field.setAccessible(true);
-        Object fieldValue = null;
-
-        try {
-          fieldValue = rs.getObject(colName);
-        }
-        catch(SQLException e) {
-          /*
-           * An exception caught here means that the field name isn't in the result set. Don't take
-           * any action.
-           */
-        }
+  protected <T> T extract(ResultSet rs, MappingPlan<T> plan) {
+    return plan.extract(rs);
+  }
 
-        /*
-         * Only set the value in the object if there is a value with the same name in the result
-         * set. This will preserve instance variables (like lists) that are assigned values when the
-         * object is created.
-         */
-        if(Objects.nonNull(fieldValue)) {
-          /*
-           * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
-           */
-          if(fieldValue instanceof Time && fieldType.equals(LocalTime.class)) {
-            fieldValue = ((Time)fieldValue).toLocalTime();
-          }
-          else if(fieldValue instanceof Timestamp && fieldType.equals(LocalDateTime.class)) {
-            fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
-          }
+  /**
+   * Returns the cached mapping plan for the given class and the columns of the given result set,
+   * building it on first use. Looking the plan up reads the result set's metadata, so it is done
+   * once for a result set, and the plan is then reused for every row.
+   * 
+   * @param <T> The Generic for the type of object the plan creates.
+   * @param rs The result set the plan will read from. Only its metadata is used.
+   * @param classType The actual class type of the object to create.
+   * @return The mapping plan.
+   */
+  @SuppressWarnings("unchecked")
+  protected <T> MappingPlan<T> mappingPlan(ResultSet rs, Class<T> classType) {
+    try {
+      ResultSetMetaData meta = rs.getMetaData();
+      int columnCount = meta.getColumnCount();
+      StringBuilder shape = new StringBuilder();
 
-          field.set(obj, fieldValue);
-        }
+      for(int col = 1; col <= columnCount; col++) {
+        shape.append(meta.getColumnLabel(col)).append(',');
       }
 
-      return obj;
+      Map<String, MappingPlan<?>> plans =
+          MAPPING_PLANS.computeIfAbsent(classType, type -> new ConcurrentHashMap<>());
 
+      return (MappingPlan<T>)plans.computeIfAbsent(shape.toString(),
+          key -> new MappingPlan<>(classType, meta));
     }
-    catch(Exception e) {
-      throw new DaoException("Unable to create object of type " + classType.getName(), e);
+    catch(SQLException e) {
+      throw new DaoException("Unable to read result set metadata for " + classType.getName(), e);
     }
   }
 
@@ -292,7 +507,7 @@ public abstract class DaoBase {
    * @param identifier The name in camel case to convert.
    * @return The name converted to snake case.
    */
-  private String camelCaseToSnakeCase(String identifier) {
+  static String camelCaseToSnakeCase(String identifier) {
     StringBuilder nameBuilder = new StringBuilder();
 
     for(char ch : identifier.toCharArray()) {
@@ -307,6 +522,157 @@ public abstract class DaoBase {
     return nameBuilder.toString();
   }
 
+  /**
+   * This holds everything needed to turn a result set row into an object of a given class: the
+   * constructor, and for each field that has a matching column, the column index and a setter. It
+   * is built once by {@link DaoBase#mappingPlan(ResultSet, Class)} so that extracting a row only
+   * reads the column values and stores them. Columns without a matching field, and fields without a
+   * matching column, are resolved when the plan is built rather than on every row.
+   * 
+   * @param <T> The type of object created by the plan.
+   */
+  protected static final class MappingPlan<T> {
+    private final Class<T> classType;
+    private final MethodHandle constructor;
+    private final int[] columnIndexes;
+    private final MethodHandle[] setters;
+    private final Class<?>[] fieldTypes;
+
+    private MappingPlan(Class<T> classType, ResultSetMetaData meta) {
+      this.classType = classType;
+
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.constructor = lookup.unreflectConstructor(classType.getConstructor())
+            .asType(MethodType.methodType(Object.class));
+
+        /* Map each column label to its index. The first column with a given label wins. */
+        Map<String, Integer> columns = new HashMap<>();
+
+        for(int col = meta.getColumnCount(); col >= 1; col--) {
+          columns.put(meta.getColumnLabel(col).toLowerCase(Locale.ROOT), col);
+        }
+
+        List<Integer> indexes = new ArrayList<>();
+        List<MethodHandle> handles = new ArrayList<>();
+        List<Class<?>> types = new ArrayList<>();
+
+        for(Field field : classType.getDeclaredFields()) {
+          if(Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+
+          Integer col = columns.get(camelCaseToSnakeCase(field.getName()).toLowerCase(Locale.ROOT));
+
+          /* Fields with no matching column are left alone, which preserves initialized lists. */
+          if(Objects.isNull(col)) {
+            continue;
+          }
+
+          field.setAccessible(true);
+          indexes.add(col);
+          handles.add(lookup.unreflectSetter(field)
+              .asType(MethodType.methodType(void.class, Object.class, Object.class)));
+          types.add(field.getType());
+        }
+
+        this.columnIndexes = indexes.stream().mapToInt(Integer::intValue).toArray();
+        this.setters = handles.toArray(new MethodHandle[0]);
+        this.fieldTypes = types.toArray(new Class<?>[0]);
+      }
+      catch(Exception e) {
+        throw new DaoException("Unable to create object of type " + classType.getName(), e);
+      }
+    }
+
+    /**
+     * Creates an object from the current row of the result set.
+     * 
+     * @param rs The result set, positioned on the correct row by the caller. It must have the same
+     *        columns as the result set the plan was built for.
+     * @return A populated object.
+     */
+    public T extract(ResultSet rs) {
+      try {
+        Object obj = constructor.invokeExact();
+
+        for(int i = 0; i < columnIndexes.length; i++) {
+          Object fieldValue = rs.getObject(columnIndexes[i]);
+
+          /*
+           * Only set the value if it is not null. This matches fields that have no column and
+           * preserves any value assigned when the object is created.
+           */
+          if(Objects.nonNull(fieldValue)) {
+            /*
+             * Convert the following types: Time -> LocalTime, and Timestamp -> LocalDateTime.
+             */
+            if(fieldValue instanceof Time && fieldTypes[i].equals(LocalTime.class)) {
+              fieldValue = ((Time)fieldValue).toLocalTime();
+            }
+            else if(fieldValue instanceof Timestamp && fieldTypes[i].equals(LocalDateTime.class)) {
+              fieldValue = ((Timestamp)fieldValue).toLocalDateTime();
+            }
+
+            setters[i].invokeExact(obj, fieldValue);
+          }
+        }
+
+        return classType.cast(obj);
+      }
+      catch(Throwable e) {
+        throw new DaoException("Unable to create object of type " + classType.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * A SQL statement registered under a name with {@link DaoBase#registerStatement(String, String)}.
+   * It also counts how often the statement was found in a connection's statement cache.
+   */
+  protected static final class NamedStatement {
+    private final String name;
+    private final String sql;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private NamedStatement(String name, String sql) {
+      this.name = name;
+      this.sql = sql;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    public String sql() {
+      return sql;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /**
+   * Statement cache statistics for one statement.
+   * 
+   * @param name The registered name, or the SQL text if the statement was not registered
+   * @param sql The SQL text
+   * @param hits The number of times an already prepared statement was reused
+   * @param misses The number of times the statement had to be prepared
+   */
+  public static record StatementStats(String name, String sql, long hits, long misses) {
+    /**
+     * @return The fraction of lookups that reused a prepared statement, or 0 if there were none.
+     */
+    public double hitRate() {
+      long total = hits + misses;
+      return total == 0 ? 0 : (double)hits / total;
+    }
+  }
+
   /**
    * This class declares the exception throw by the {@link DaoBase} class. It is a thin wrapper for
    * {@link RuntimeException}.
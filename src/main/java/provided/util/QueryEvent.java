@@ -0,0 +1,66 @@
+package provided.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * A Java Flight Recorder event covering the life of one prepared statement, from when it is
+ * prepared to when it is closed. It is only emitted for statements prepared through
+ * {@link DaoBase}, and only when it lasts longer than the threshold configured for the recording
+ * (20 ms unless the recording's settings say otherwise). When the event is disabled statements are
+ * not traced at all.
+ */
+@Name("projects.Query")
+@Label("Query")
+@Category({"Projects", "Database"})
+@Description("A prepared statement, from prepare to close")
+@Threshold("20 ms")
+@StackTrace(true)
+public class QueryEvent extends jdk.jfr.Event {
+  @Label("Statement Name")
+  @Description("The name the statement was registered or prepared under")
+  String statementName;
+
+  @Label("SQL")
+  String sql;
+
+  @Label("Parameters")
+  @Description("The parameters bound by the last execution, in index order. Text is masked unless projects.jfr.parameterValues is true")
+  String parameters;
+
+  @Label("Executions")
+  int executions;
+
+  @Label("Rows Returned")
+  @Description("Rows read from the statement's result sets")
+  long rowsReturned;
+
+  @Label("Rows Updated")
+  @Description("The update counts of the statement's executions, added together")
+  long rowsUpdated;
+
+  @Label("Connection Wait")
+  @Description("How long the thread waited for its connection before preparing the statement")
+  @Timespan
+  long connectionWait;
+
+  @Label("Execution Time")
+  @Description("Time spent in the statement's execute calls")
+  @Timespan
+  long executionTime;
+
+  @Label("Fetch Time")
+  @Description("Time spent in ResultSet.next, reading rows from the driver")
+  @Timespan
+  long fetchTime;
+
+  @Label("Mapping Time")
+  @Description("The rest of the statement's life: binding parameters and mapping rows")
+  @Timespan
+  long mappingTime;
+}
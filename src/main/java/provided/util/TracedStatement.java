@@ -0,0 +1,214 @@
+package provided.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Wraps a prepared statement so that its life is recorded as a {@link QueryEvent}. It notes the
+ * parameters bound, times the execute calls and the reads of each result set, and commits the
+ * event when the statement is closed. Statements are only wrapped while the event is enabled.
+ */
+final class TracedStatement implements InvocationHandler {
+  /**
+   * Parameter lists longer than this are cut short in the event.
+   */
+  private static final int MAX_PARAMETER_TEXT = 1000;
+
+  /**
+   * Whether text and other non-numeric parameter values are copied into the event as they are.
+   * They are masked unless the projects.jfr.parameterValues system property is true, since they
+   * hold user data such as project names and notes.
+   */
+  private static final boolean RECORD_VALUES = Boolean.getBoolean("projects.jfr.parameterValues");
+
+  private final PreparedStatement target;
+  private final QueryEvent event;
+  private final long startNanos = System.nanoTime();
+  private Object[] parameters = new Object[8];
+  private int parameterCount;
+  private boolean closed;
+
+  private TracedStatement(PreparedStatement target, QueryEvent event) {
+    this.target = target;
+    this.event = event;
+  }
+
+  /**
+   * Returns a traced proxy for the statement.
+   *
+   * @param target The statement to trace
+   * @param event The event to record into, already begun, with its name, SQL and connection wait
+   *        set
+   * @return The proxy
+   */
+  static PreparedStatement wrap(PreparedStatement target, QueryEvent event) {
+    return (PreparedStatement)Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, new TracedStatement(target, event));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+
+    if(name.startsWith("set") && Objects.nonNull(args) && args.length >= 2
+        && method.getParameterTypes()[0] == int.class) {
+      recordParameter((Integer)args[0], name.equals("setNull") ? null : args[1]);
+    }
+    else if(name.equals("clearParameters")) {
+      Arrays.fill(parameters, null);
+      parameterCount = 0;
+    }
+    else if(name.equals("close")) {
+      if(!closed) {
+        closed = true;
+        try {
+          return delegate(method, args);
+        }
+        finally {
+          finish();
+        }
+      }
+      return null;
+    }
+    else if(name.startsWith("execute")) {
+      long start = System.nanoTime();
+      try {
+        return executed(delegate(method, args));
+      }
+      finally {
+        event.executionTime += System.nanoTime() - start;
+        event.executions++;
+      }
+    }
+    else if(name.equals("getResultSet")) {
+      return trace((ResultSet)delegate(method, args));
+    }
+
+    return delegate(method, args);
+  }
+
+  private Object delegate(Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    }
+    catch(InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Counts the rows updated by an execute call, and traces the result set it returned.
+   */
+  private Object executed(Object result) {
+    if(result instanceof ResultSet) {
+      return trace((ResultSet)result);
+    }
+    if(result instanceof Integer || result instanceof Long) {
+      event.rowsUpdated += Math.max(0, ((Number)result).longValue());
+    }
+    else if(result instanceof int[]) {
+      for(int count : (int[])result) {
+        event.rowsUpdated += Math.max(0, count);
+      }
+    }
+    return result;
+  }
+
+  private void recordParameter(int index, Object value) {
+    if(index > parameters.length) {
+      parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+    }
+    parameters[index - 1] = value;
+    parameterCount = Math.max(parameterCount, index);
+  }
+
+  /**
+   * Ends the event and, if it passed the threshold, fills in the remaining fields and commits it.
+   */
+  private void finish() {
+    long elapsed = System.nanoTime() - startNanos;
+    event.end();
+
+    if(event.shouldCommit()) {
+      event.parameters = formatParameters();
+      event.mappingTime = Math.max(0, elapsed - event.executionTime - event.fetchTime);
+      event.commit();
+    }
+  }
+
+  private String formatParameters() {
+    StringBuilder text = new StringBuilder("[");
+
+    for(int i = 0; i < parameterCount && text.length() < MAX_PARAMETER_TEXT; i++) {
+      if(i > 0) {
+        text.append(", ");
+      }
+      appendParameter(text, parameters[i]);
+    }
+
+    if(text.length() >= MAX_PARAMETER_TEXT) {
+      text.setLength(MAX_PARAMETER_TEXT);
+      text.append("...");
+    }
+
+    return text.append(']').toString();
+  }
+
+  /**
+   * Appends a parameter value. Nulls, numbers and booleans are written as they are. Strings and
+   * other values are masked, showing only their length or type, unless values are recorded.
+   */
+  private static void appendParameter(StringBuilder text, Object value) {
+    if(Objects.isNull(value) || value instanceof Number || value instanceof Boolean) {
+      text.append(value);
+    }
+    else if(value instanceof String) {
+      String string = (String)value;
+      if(RECORD_VALUES) {
+        text.append('\'').append(string).append('\'');
+      }
+      else {
+        text.append("<").append(string.length()).append(" chars>");
+      }
+    }
+    else {
+      text.append(RECORD_VALUES ? String.valueOf(value) : "<" + value.getClass().getSimpleName() + ">");
+    }
+  }
+
+  private ResultSet trace(ResultSet rs) {
+    if(Objects.isNull(rs)) {
+      return null;
+    }
+
+    return (ResultSet)Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+          boolean next = method.getName().equals("next");
+          long start = next ? System.nanoTime() : 0;
+
+          try {
+            Object result = method.invoke(rs, args);
+
+            if(next && Boolean.TRUE.equals(result)) {
+              event.rowsReturned++;
+            }
+
+            return result;
+          }
+          catch(InvocationTargetException e) {
+            throw e.getCause();
+          }
+          finally {
+            if(next) {
+              event.fetchTime += System.nanoTime() - start;
+            }
+          }
+        });
+  }
+}
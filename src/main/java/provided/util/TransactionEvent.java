@@ -0,0 +1,26 @@
+package provided.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * A Java Flight Recorder event covering a transaction started with
+ * {@link DaoBase#startTransaction(java.sql.Connection)}, up to the commit or rollback that ends it
+ * on the same thread. It is emitted only when the transaction lasts longer than the recording's
+ * threshold, 20 ms by default.
+ */
+@Name("projects.Transaction")
+@Label("Transaction")
+@Category({"Projects", "Database"})
+@Description("A database transaction, from start to commit or rollback")
+@Threshold("20 ms")
+@StackTrace(true)
+public class TransactionEvent extends jdk.jfr.Event {
+  @Label("Committed")
+  @Description("False if the transaction was rolled back")
+  boolean committed;
+}
@@ -1,3 +1,4 @@
+DROP PROCEDURE IF EXISTS fetch_project_graph;
 DROP TABLE IF EXISTS project_category;
 DROP TABLE IF EXISTS category;
 DROP TABLE IF EXISTS step;
@@ -46,3 +47,19 @@ CREATE TABLE project_category (
  FOREIGN KEY (category_id) REFERENCES category (category_id),
  UNIQUE KEY (project_id, category_id)
 );
+
+-- Returns a project and its materials, steps (in step order) and category IDs
+-- as four result sets, read from one snapshot, so that the application can
+-- load the whole project graph in a single round trip.
+DELIMITER $$
+CREATE PROCEDURE fetch_project_graph(IN p_project_id INT)
+READS SQL DATA
+BEGIN
+ START TRANSACTION WITH CONSISTENT SNAPSHOT, READ ONLY;
+ SELECT * FROM project WHERE project_id = p_project_id;
+ SELECT * FROM material WHERE project_id = p_project_id;
+ SELECT * FROM step WHERE project_id = p_project_id ORDER BY step_order;
+ SELECT category_id FROM project_category WHERE project_id = p_project_id;
+ COMMIT;
+END$$
+DELIMITER ;